@@ -11,6 +11,7 @@ import android.view.View.OnClickListener;
 import android.widget.Button;
 import android.widget.TextView;
 
+import com.tencent.intoo.component.widget.waveselector.WaveLog;
 import com.tencent.intoo.component.widget.waveselector.WaveSelector;
 import com.tencent.intoo.component.widget.waveselector.WaveSelector.IWaveSelectorListener;
 
@@ -29,6 +30,9 @@ public class MainActivity extends AppCompatActivity implements IWaveSelectorList
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        if (BuildConfig.DEBUG) {
+            WaveLog.setLogger(WaveLog.ANDROID);
+        }
         setContentView(R.layout.main_activity);
 
         assignViews();
@@ -0,0 +1,43 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+/**
+ * 记录绘制调用的假 Canvas，只累计调用次数和坐标，不做真实绘制
+ */
+final class RecordingCanvas extends Canvas {
+    int drawCount;
+    float checksum;
+
+    void reset() {
+        drawCount = 0;
+        checksum = 0;
+    }
+
+    @Override
+    public void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+        drawCount++;
+        checksum += rx + ry;
+    }
+
+    @Override
+    public void drawPath(Path path, Paint paint) {
+        drawCount++;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        drawCount++;
+        checksum += left + top;
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+        drawCount++;
+        checksum += startX + stopY;
+    }
+}
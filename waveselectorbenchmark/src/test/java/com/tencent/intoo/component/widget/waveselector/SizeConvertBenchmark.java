@@ -0,0 +1,49 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 像素与时间换算的基准测试
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SizeConvertBenchmark {
+    // 1080像素对应30秒
+    private static final double PIX_PER_MS = 1080.0 / 30000;
+
+    private WaveSelector.SizeConvertAdapter mAdapter;
+    private long mTime;
+    private double mPix;
+
+    @Setup
+    public void setUp() {
+        mAdapter = new WaveSelector.SizeConvertAdapter(PIX_PER_MS);
+    }
+
+    @Benchmark
+    public double pixByTime() {
+        mTime = (mTime + 23) % 3600000;
+        return mAdapter.timeToPix(mTime);
+    }
+
+    @Benchmark
+    public long timeByPix() {
+        mPix = (mPix + 7.25) % 129600;
+        return mAdapter.pixToTime(mPix);
+    }
+}
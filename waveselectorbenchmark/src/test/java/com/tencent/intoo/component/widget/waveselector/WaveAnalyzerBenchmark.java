@@ -0,0 +1,97 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 整首音频波形提取的基准测试，比较顺序提取和不同线程数的并行提取
+ * <p>
+ * 44100Hz 单声道PCM放在堆外内存中，与内存映射的解码文件类似。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx1g", "-XX:MaxDirectMemorySize=1g"})
+public class WaveAnalyzerBenchmark {
+    private static final int SAMPLE_RATE = 44100;
+    // 满屏72个点对应40秒
+    private static final int SAMPLE_STEP = WaveSelector.calcSampleStep(SAMPLE_RATE, 72, 40);
+
+    @Param({"1", "10", "60"})
+    public int minutes;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private ShortBuffer mPcm;
+    private short[] mChunk;
+    private ForkJoinPool mPool;
+    private ParallelWaveAnalyzer mAnalyzer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int samples = minutes * 60 * SAMPLE_RATE;
+        mPcm = ByteBuffer.allocateDirect(samples * 2).order(ByteOrder.nativeOrder()).asShortBuffer();
+        Random random = new Random(1);
+        while (mPcm.hasRemaining()) {
+            mPcm.put((short) random.nextInt());
+        }
+        mPcm.flip();
+        mChunk = new short[PcmWaveExtractor.SAMPLES_PER_FRAME * 16];
+        mPool = new ForkJoinPool(threads);
+        mAnalyzer = new ParallelWaveAnalyzer(1, SAMPLE_STEP, PcmWaveExtractor.MODE_PEAK, mPool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mPool.shutdown();
+    }
+
+    @Benchmark
+    public int[] parallel() {
+        return mAnalyzer.analyze(mPcm);
+    }
+
+    /**
+     * 顺序提取，与线程数无关，作为对照
+     */
+    @Benchmark
+    public int sequential() {
+        final int[] last = new int[1];
+        PcmWaveExtractor extractor = new PcmWaveExtractor(1, SAMPLE_STEP, PcmWaveExtractor.MODE_PEAK,
+                new PcmWaveExtractor.IVolumeReceiver() {
+                    @Override
+                    public void onVolume(int index, int volume) {
+                        last[0] += volume;
+                    }
+                });
+        ShortBuffer pcm = mPcm.duplicate();
+        while (pcm.hasRemaining()) {
+            int n = Math.min(mChunk.length, pcm.remaining());
+            pcm.get(mChunk, 0, n);
+            extractor.feed(mChunk, 0, n);
+        }
+        extractor.flush();
+        return last[0];
+    }
+}
@@ -0,0 +1,96 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 波形数据写入的基准测试，对应 setData / refreshData / appendData
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaveDataBenchmark {
+    // 每次追加的点数，约为解码一块数据产生的点数
+    private static final int APPEND_CHUNK = 64;
+
+    // 约43点每秒，分别为1分钟、10分钟、1小时的音频
+    @Param({"2580", "25800", "154800"})
+    public int pointCount;
+
+    private List<Integer> mVolumes;
+    private List<List<Integer>> mChunks;
+    private ShortWaveData mData;
+    private WavePyramid mPyramid;
+
+    @Setup
+    public void setUp() {
+        mVolumes = new ArrayList<>(pointCount);
+        for (int i = 0; i < pointCount; i++) {
+            mVolumes.add((i * 7919) % 65536);
+        }
+        mChunks = new ArrayList<>();
+        for (int i = 0; i < pointCount; i += APPEND_CHUNK) {
+            mChunks.add(mVolumes.subList(i, Math.min(i + APPEND_CHUNK, pointCount)));
+        }
+        mData = new ShortWaveData();
+        mData.set(mVolumes);
+        mPyramid = new WavePyramid();
+    }
+
+    /**
+     * 首次 setData，新建数组
+     */
+    @Benchmark
+    public ShortWaveData setData() {
+        ShortWaveData data = new ShortWaveData();
+        data.set(mVolumes);
+        return data;
+    }
+
+    /**
+     * refreshData，复用已有数组
+     */
+    @Benchmark
+    public ShortWaveData refreshData() {
+        mData.set(mVolumes);
+        return mData;
+    }
+
+    /**
+     * 边解码边 appendData
+     */
+    @Benchmark
+    public ShortWaveData appendData() {
+        ShortWaveData data = new ShortWaveData();
+        for (int i = 0; i < mChunks.size(); i++) {
+            data.append(mChunks.get(i));
+        }
+        return data;
+    }
+
+    /**
+     * 缩放前全量构建金字塔
+     */
+    @Benchmark
+    public WavePyramid buildPyramid() {
+        mPyramid.reset();
+        mPyramid.update(mData);
+        return mPyramid;
+    }
+}
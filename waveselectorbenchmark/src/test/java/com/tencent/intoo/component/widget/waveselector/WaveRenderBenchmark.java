@@ -0,0 +1,98 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import android.graphics.Paint;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 每帧绘制路径的基准测试：可见区间计算和 doDraw 中逐个波形的布局计算
+ * <p>
+ * 每次调用滚动一个波形宽度，模拟拖动时的连续帧。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaveRenderBenchmark {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 300;
+    private static final int PAGE_COUNT = 72;
+    private static final int POINT_COUNT = 25800;
+
+    @Param({"0", "1", "2"})
+    public int renderMode;
+
+    private WaveRenderer mRenderer;
+    private ShortWaveData mData;
+    private RecordingCanvas mCanvas;
+    private int mMaxLeft;
+    private int mStep;
+    private int mCurrentLeft;
+
+    @Setup
+    public void setUp() {
+        float waveSize = WIDTH * 1.0f / PAGE_COUNT / 2;
+        mRenderer = new WaveRenderer(new Paint(), new Paint());
+        mRenderer.setGeometry(WIDTH, HEIGHT, WIDTH / 2, PAGE_COUNT, waveSize, waveSize);
+        mRenderer.setWaveStyle(4, 60, 90);
+        mRenderer.setPlayingColors(new int[]{0xffff0000, 0xffffff00});
+        mRenderer.setRenderMode(renderMode);
+
+        List<Integer> volumes = new ArrayList<>(POINT_COUNT);
+        for (int i = 0; i < POINT_COUNT; i++) {
+            volumes.add((i * 7919) % 65536);
+        }
+        mData = new ShortWaveData();
+        mData.set(volumes);
+        mCanvas = new RecordingCanvas();
+
+        mStep = Math.max(1, (int) mRenderer.getWaveUnit());
+        mMaxLeft = (int) (mRenderer.getWaveUnit() * POINT_COUNT);
+        mCurrentLeft = WIDTH / 2;
+    }
+
+    private int nextLeft() {
+        mCurrentLeft += mStep;
+        if (mCurrentLeft > mMaxLeft) mCurrentLeft = WIDTH / 2;
+        return mCurrentLeft;
+    }
+
+    /**
+     * 原 getCurrentPageData 的可见区间计算
+     */
+    @Benchmark
+    public int visibleWindow() {
+        mRenderer.updateVisibleWindow(mData.size(), nextLeft());
+        return mRenderer.getVisibleFrom() + mRenderer.getVisibleTo();
+    }
+
+    /**
+     * 一帧完整的波形绘制，高亮区间覆盖屏幕中间的半屏，其中前一半已播放
+     * <p>
+     * 高亮位置是屏幕坐标，不随滚动位置变化，每帧都经过高亮绘制
+     */
+    @Benchmark
+    public float drawFrame() {
+        int left = nextLeft();
+        mCanvas.reset();
+        mRenderer.updateVisibleWindow(mData.size(), left);
+        mRenderer.drawWave(mCanvas, mData, left, WIDTH / 4, WIDTH / 2, 3 * WIDTH / 4);
+        return mCanvas.checksum + mCanvas.drawCount;
+    }
+}
@@ -0,0 +1,12 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.io.IOException;
+
+/**
+ * 波形缓存文件损坏或版本不支持，调用方应删除缓存重新生成
+ */
+public class CorruptWaveCacheException extends IOException {
+    public CorruptWaveCacheException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,208 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 从文件按页读取的波形数据源，适用于数小时的录音
+ * <p>
+ * 文件中每个波形点为16位小端无符号音量，从 dataOffset 开始连续存放。
+ * 每 {@link #PAGE_POINTS} 个点为一页，最多缓存 maxPages 页，超出时淘汰离当前读取位置最远的页。
+ * 读取已缓存的页不加锁；未缓存时在调用线程同步读取。设置了 executor 时预取在后台加载。
+ * 读取失败的页记为静音，不再同步读取，下一次预取时重试。
+ */
+public final class FileWaveDataSource implements IWaveDataSource, Closeable {
+    // 每页点数，8KB
+    public static final int PAGE_POINTS = 4096;
+    public static final int DEFAULT_MAX_PAGES = 16;
+
+    private static final int PAGE_BYTES = PAGE_POINTS * 2;
+    // 读取失败的页，所有失败页共享，不占用缓存页数
+    private static final short[] FAILED_PAGE = new short[PAGE_POINTS];
+
+    private final RandomAccessFile mFile;
+    private final FileChannel mChannel;
+    private final long mDataOffset;
+    private final int mSize;
+    private final int mMaxPages;
+    private final Executor mExecutor;
+
+    // 已加载的页，读取不加锁，加载和淘汰在锁内
+    private final AtomicReferenceArray<short[]> mPages;
+    // 以下在锁内访问
+    private final int[] mResident;
+    private int mResidentCount;
+    private final boolean[] mLoading;
+    private final ByteBuffer mReadBuffer = ByteBuffer.allocate(PAGE_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * 整个文件都是波形数据，同步加载
+     */
+    public FileWaveDataSource(File file) throws IOException {
+        this(file, 0, -1, DEFAULT_MAX_PAGES, null);
+    }
+
+    /**
+     * @param file       文件
+     * @param dataOffset 波形数据在文件中的偏移
+     * @param count      波形点数，小于0时由文件长度计算
+     * @param maxPages   最多缓存的页数
+     * @param executor   预取使用的线程，null 时在调用线程同步加载
+     */
+    public FileWaveDataSource(File file, long dataOffset, int count, int maxPages, Executor executor) throws IOException {
+        if (maxPages <= 0) throw new IllegalArgumentException("maxPages must be positive. " + maxPages);
+        mFile = new RandomAccessFile(file, "r");
+        mChannel = mFile.getChannel();
+        long available = Math.max(0, (mFile.length() - dataOffset) / 2);
+        if (count < 0) {
+            count = (int) Math.min(Integer.MAX_VALUE, available);
+        } else if (count > available) {
+            mFile.close();
+            throw new IOException("file too short. count:" + count + ", available:" + available);
+        }
+        mDataOffset = dataOffset;
+        mSize = count;
+        mMaxPages = maxPages;
+        mExecutor = executor;
+
+        int pageCount = (count + PAGE_POINTS - 1) / PAGE_POINTS;
+        mPages = new AtomicReferenceArray<>(pageCount);
+        mResident = new int[Math.min(maxPages, Math.max(pageCount, 1))];
+        mLoading = new boolean[pageCount];
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    @Override
+    public int getVolume(int index) {
+        int pageIndex = index / PAGE_POINTS;
+        short[] page = mPages.get(pageIndex);
+        if (page == null) {
+            page = loadPage(pageIndex);
+        }
+        return page[index - pageIndex * PAGE_POINTS] & ShortWaveData.MAX_VOLUME;
+    }
+
+    @Override
+    public void prefetch(int from, int to) {
+        from = Math.max(0, from);
+        to = Math.min(mSize, to);
+        if (from >= to) return;
+        int firstPage = from / PAGE_POINTS;
+        // 不超过缓存容量，避免预取的页互相淘汰
+        int lastPage = Math.min((to - 1) / PAGE_POINTS, firstPage + mMaxPages - 1);
+        for (int pageIndex = firstPage; pageIndex <= lastPage; pageIndex++) {
+            if (isPageLoaded(pageIndex)) continue;
+            if (mExecutor == null) {
+                loadPage(pageIndex);
+            } else {
+                requestPage(pageIndex);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        mFile.close();
+    }
+
+    /**
+     * @return 当前缓存的页数
+     */
+    synchronized int getResidentPageCount() {
+        return mResidentCount;
+    }
+
+    /**
+     * @return 页是否已缓存，读取失败的页不算
+     */
+    boolean isPageLoaded(int pageIndex) {
+        short[] page = mPages.get(pageIndex);
+        return page != null && page != FAILED_PAGE;
+    }
+
+    /**
+     * @param from 起始下标，包含
+     * @param to   结束下标，不包含
+     * @return 区间内的页是否都已缓存或读取失败，读取时不需要同步加载
+     */
+    boolean isLoaded(int from, int to) {
+        from = Math.max(0, from);
+        to = Math.min(mSize, to);
+        if (from >= to) return true;
+        for (int pageIndex = from / PAGE_POINTS; pageIndex <= (to - 1) / PAGE_POINTS; pageIndex++) {
+            if (mPages.get(pageIndex) == null) return false;
+        }
+        return true;
+    }
+
+    private void requestPage(final int pageIndex) {
+        synchronized (this) {
+            if (mLoading[pageIndex]) return;
+            mLoading[pageIndex] = true;
+        }
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                loadPage(pageIndex);
+            }
+        });
+    }
+
+    private synchronized short[] loadPage(int pageIndex) {
+        mLoading[pageIndex] = false;
+        short[] page = mPages.get(pageIndex);
+        if (page != null && page != FAILED_PAGE) return page;
+
+        int from = pageIndex * PAGE_POINTS;
+        int count = Math.min(PAGE_POINTS, mSize - from);
+        try {
+            mReadBuffer.clear();
+            mReadBuffer.limit(count * 2);
+            long position = mDataOffset + (long) from * 2;
+            while (mReadBuffer.hasRemaining()) {
+                int read = mChannel.read(mReadBuffer, position + mReadBuffer.position());
+                if (read < 0) throw new IOException("unexpected end of file.");
+            }
+            mReadBuffer.flip();
+            page = new short[PAGE_POINTS];
+            mReadBuffer.asShortBuffer().get(page, 0, count);
+        } catch (IOException e) {
+            // 读取失败时记为静音，之后的读取不再同步重试，由下一次预取重试
+            if (WaveLog.isEnabled()) WaveLog.e(WaveSelector.TAG, "loadPage() failed. page:" + pageIndex + ", " + e);
+            mPages.set(pageIndex, FAILED_PAGE);
+            return FAILED_PAGE;
+        }
+
+        if (mResidentCount == mResident.length) {
+            evictFarthest(pageIndex);
+        }
+        mResident[mResidentCount++] = pageIndex;
+        mPages.set(pageIndex, page);
+        return page;
+    }
+
+    /**
+     * 淘汰离 pageIndex 最远的页，读取是顺着滚动方向的，远处的页最不可能马上用到
+     */
+    private void evictFarthest(int pageIndex) {
+        int farthest = 0;
+        for (int i = 1; i < mResidentCount; i++) {
+            if (Math.abs(mResident[i] - pageIndex) > Math.abs(mResident[farthest] - pageIndex)) {
+                farthest = i;
+            }
+        }
+        mPages.set(mResident[farthest], null);
+        mResident[farthest] = mResident[--mResidentCount];
+    }
+}
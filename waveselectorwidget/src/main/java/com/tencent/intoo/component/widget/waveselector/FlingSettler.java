@@ -0,0 +1,115 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+/**
+ * 惯性滑动和 seek 的逐帧推进与停止判定
+ * <p>
+ * 开始时就从 Scroller 取得最终位置，之后由帧时钟每帧推进一次，Scroller 停止的那一帧回调一次
+ * {@link ICallback#onSettled(int)}，不依赖绘制时机，也不用墙钟时间猜测是否停止。
+ * 新的手势开始时 {@link #cancel()}，被取消的滑动不回调。
+ */
+final class FlingSettler {
+
+    /**
+     * Scroller 中用到的部分，单测中可以替换成按帧时钟运动的实现
+     */
+    interface IScroller {
+        boolean computeScrollOffset();
+
+        boolean isFinished();
+
+        int getCurrX();
+
+        int getFinalX();
+    }
+
+    interface ICallback {
+        /**
+         * 滑动过程中位置变化
+         */
+        void onScrollFrame(int x);
+
+        /**
+         * 滑动停止，每次 {@link #start()} 最多回调一次
+         *
+         * @param finalX 开始时确定的最终位置
+         */
+        void onSettled(int finalX);
+    }
+
+    private final IFrameClock mClock;
+    private final IScroller mScroller;
+    private final ICallback mCallback;
+
+    private boolean mPending;
+    private int mTargetX;
+    private int mLastX;
+    private final Runnable mFrameCallback = new Runnable() {
+        @Override
+        public void run() {
+            doFrame();
+        }
+    };
+
+    FlingSettler(IFrameClock clock, IScroller scroller, ICallback callback) {
+        mClock = clock;
+        mScroller = scroller;
+        mCallback = callback;
+    }
+
+    /**
+     * Scroller 开始 fling 或修改了最终位置后调用，重复调用时以最后一次的最终位置为准
+     */
+    void start() {
+        mTargetX = mScroller.getFinalX();
+        mLastX = mScroller.getCurrX();
+        mPending = true;
+        mClock.removeFrameCallback(mFrameCallback);
+        if (mScroller.isFinished()) {
+            settle();
+        } else {
+            mClock.postFrameCallback(mFrameCallback);
+        }
+    }
+
+    /**
+     * 取消未结束的滑动，不回调
+     */
+    void cancel() {
+        mPending = false;
+        mClock.removeFrameCallback(mFrameCallback);
+    }
+
+    boolean isPending() {
+        return mPending;
+    }
+
+    /**
+     * @return 最近一次开始的滑动的最终位置
+     */
+    int getTargetX() {
+        return mTargetX;
+    }
+
+    private void doFrame() {
+        if (!mPending) return;
+
+        if (mScroller.computeScrollOffset()) {
+            int x = mScroller.getCurrX();
+            if (x != mLastX) {
+                mLastX = x;
+                mCallback.onScrollFrame(x);
+            }
+        }
+        // computeScrollOffset 在到达终点的那一帧就标记结束，不需要再等一帧
+        if (mScroller.isFinished()) {
+            settle();
+        } else {
+            mClock.postFrameCallback(mFrameCallback);
+        }
+    }
+
+    private void settle() {
+        mPending = false;
+        mCallback.onSettled(mTargetX);
+    }
+}
@@ -0,0 +1,78 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+/**
+ * 渐变色查找表
+ * <p>
+ * 按进度预先计算 {@link #SIZE} 个颜色（奇数个，保证 0.5 等分点落在表中），绘制时直接查表，只在颜色变化时重建。
+ */
+final class GradientLut {
+    static final int SIZE = 257;
+
+    private final int[] mTable = new int[SIZE];
+
+    /**
+     * @param colors 渐变色，至少两个，均匀分布在 0 ~ 1
+     */
+    void set(int[] colors) {
+        int segments = colors.length - 1;
+        for (int i = 0; i < SIZE; i++) {
+            float pos = i * 1.0f / (SIZE - 1) * segments;
+            int segment = Math.min((int) pos, segments - 1);
+            mTable[i] = evaluate(pos - segment, colors[segment], colors[segment + 1]);
+        }
+    }
+
+    /**
+     * @param fraction 进度百分比，超出 0 ~ 1 时取两端颜色
+     * @return 颜色
+     */
+    int getColor(float fraction) {
+        int index = (int) (fraction * (SIZE - 1) + 0.5f);
+        if (index < 0) return mTable[0];
+        if (index >= SIZE) return mTable[SIZE - 1];
+        return mTable[index];
+    }
+
+    /**
+     * 通过起止色计算渐变色，与 {@link android.animation.ArgbEvaluator} 算法一致，但不对颜色装箱
+     *
+     * @param fraction   进度百分比
+     * @param startColor 起始色
+     * @param endColor   终止色
+     * @return 颜色
+     */
+    static int evaluate(float fraction, int startColor, int endColor) {
+        float startA = ((startColor >> 24) & 0xff) / 255.0f;
+        float startR = ((startColor >> 16) & 0xff) / 255.0f;
+        float startG = ((startColor >> 8) & 0xff) / 255.0f;
+        float startB = (startColor & 0xff) / 255.0f;
+
+        float endA = ((endColor >> 24) & 0xff) / 255.0f;
+        float endR = ((endColor >> 16) & 0xff) / 255.0f;
+        float endG = ((endColor >> 8) & 0xff) / 255.0f;
+        float endB = (endColor & 0xff) / 255.0f;
+
+        // convert from sRGB to linear
+        startR = (float) Math.pow(startR, 2.2);
+        startG = (float) Math.pow(startG, 2.2);
+        startB = (float) Math.pow(startB, 2.2);
+
+        endR = (float) Math.pow(endR, 2.2);
+        endG = (float) Math.pow(endG, 2.2);
+        endB = (float) Math.pow(endB, 2.2);
+
+        // compute the interpolated color in linear space
+        float a = startA + fraction * (endA - startA);
+        float r = startR + fraction * (endR - startR);
+        float g = startG + fraction * (endG - startG);
+        float b = startB + fraction * (endB - startB);
+
+        // convert back to sRGB in the [0..255] range
+        a = a * 255.0f;
+        r = (float) Math.pow(r, 1.0 / 2.2) * 255.0f;
+        g = (float) Math.pow(g, 1.0 / 2.2) * 255.0f;
+        b = (float) Math.pow(b, 1.0 / 2.2) * 255.0f;
+
+        return Math.round(a) << 24 | Math.round(r) << 16 | Math.round(g) << 8 | Math.round(b);
+    }
+}
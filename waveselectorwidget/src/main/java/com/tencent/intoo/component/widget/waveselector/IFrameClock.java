@@ -0,0 +1,21 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+/**
+ * 帧时钟
+ * <p>
+ * 默认由 {@link android.view.View#postOnAnimation(Runnable)} 在每个vsync驱动，单测中可以替换成手动推进的时钟。
+ */
+interface IFrameClock {
+
+    /**
+     * @return 当前帧时间，单位毫秒
+     */
+    long uptimeMillis();
+
+    /**
+     * 在下一帧执行一次callback
+     */
+    void postFrameCallback(Runnable callback);
+
+    void removeFrameCallback(Runnable callback);
+}
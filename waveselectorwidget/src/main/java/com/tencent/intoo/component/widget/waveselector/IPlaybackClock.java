@@ -0,0 +1,15 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+/**
+ * 播放位置提供者
+ * <p>
+ * 高亮播放期间控件每帧在主线程调用一次 {@link #getPlaybackPosition()}，
+ * 播放器位置更新不及时时控件按帧时间插值，不需要自己定时推送。
+ */
+public interface IPlaybackClock {
+
+    /**
+     * @return 当前播放位置，音频内的绝对时间，单位毫秒
+     */
+    long getPlaybackPosition();
+}
@@ -0,0 +1,18 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+/**
+ * 波形数据的只读接口
+ */
+public interface IWaveData {
+
+    /**
+     * @return 波形点个数
+     */
+    int size();
+
+    /**
+     * @param index 波形点下标，0 ~ size() - 1
+     * @return 音量，0 ~ 65535
+     */
+    int getVolume(int index);
+}
@@ -0,0 +1,18 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+/**
+ * 按需加载的波形数据源
+ * <p>
+ * 控件每帧只读取可见区间内的数据，并在绘制前对可见区间加上预取余量调用 {@link #prefetch(int, int)}。
+ * {@link #getVolume(int)} 在主线程调用，未预取的数据也必须能返回正确结果。
+ */
+public interface IWaveDataSource extends IWaveData {
+
+    /**
+     * 提示即将读取的区间，实现可以异步加载
+     *
+     * @param from 起始下标，包含
+     * @param to   结束下标，不包含
+     */
+    void prefetch(int from, int to);
+}
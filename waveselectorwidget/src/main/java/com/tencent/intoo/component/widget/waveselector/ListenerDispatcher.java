@@ -0,0 +1,260 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+import com.tencent.intoo.component.widget.waveselector.WaveSelector.IWaveSelectorListener;
+
+/**
+ * 回调分发
+ * <p>
+ * 所有 dispatch 方法在主线程调用，保证：
+ * <ul>
+ * <li>回调按调用顺序送达，设置了 executor 时也串行执行，executor 可以是线程池</li>
+ * <li>onChanging 按最小间隔和最小时间差限流，被推迟的回调送达时总是最新的位置；
+ * executor 积压时排队中的 onChanging 合并为最新的一个</li>
+ * <li>onSelect 会丢弃还没送达的 onChanging，一次滑动的 onChanging 不会晚于它结束时的 onSelect</li>
+ * <li>onSelect、onLimit、onReady 不限流也不合并</li>
+ * </ul>
+ * 没有设置 executor 时在主线程同步回调，不分配对象。
+ */
+final class ListenerDispatcher {
+    private final IFrameClock mClock;
+    private IWaveSelectorListener mListener;
+    private SerialQueue mQueue;
+
+    private long mMinInterval;
+    private long mMinDelta;
+
+    // 上次送达的 onChanging
+    private boolean mHasLast;
+    private long mLastTime;
+    private long mLastValue;
+    // 被限流推迟的 onChanging
+    private boolean mHasPending;
+    private long mPendingValue;
+    private final Runnable mFrameCallback = new Runnable() {
+        @Override
+        public void run() {
+            flushChanging();
+        }
+    };
+
+    ListenerDispatcher(IFrameClock clock) {
+        mClock = clock;
+    }
+
+    void setListener(IWaveSelectorListener listener) {
+        mListener = listener;
+    }
+
+    IWaveSelectorListener getListener() {
+        return mListener;
+    }
+
+    /**
+     * @param executor 回调执行的线程，null 时在主线程同步回调
+     */
+    void setExecutor(Executor executor) {
+        mQueue = executor != null ? new SerialQueue(executor) : null;
+    }
+
+    /**
+     * @param minInterval 两次 onChanging 的最小间隔，毫秒，0 不限制
+     * @param minDelta    与上次 onChanging 的时间差小于该值时不回调，毫秒，0 不限制
+     */
+    void setChangingThrottle(long minInterval, long minDelta) {
+        mMinInterval = Math.max(0, minInterval);
+        mMinDelta = Math.max(0, minDelta);
+    }
+
+    void dispatchChanging(long timeStart) {
+        if (mListener == null) return;
+        mHasPending = true;
+        mPendingValue = timeStart;
+        flushChanging();
+    }
+
+    void dispatchSelect(long timeStart) {
+        dropChanging();
+        // 下一次滑动的第一个 onChanging 不受上一次的间隔和时间差限制
+        mHasLast = false;
+        if (mListener == null) return;
+        if (mQueue != null) {
+            mQueue.enqueue(new CallbackTask(mListener, CallbackTask.SELECT, timeStart));
+        } else {
+            mListener.onSelect(timeStart);
+        }
+    }
+
+    void dispatchLimit() {
+        if (mListener == null) return;
+        if (mQueue != null) {
+            mQueue.enqueue(new CallbackTask(mListener, CallbackTask.LIMIT, 0));
+        } else {
+            mListener.onLimit();
+        }
+    }
+
+    void dispatchReady() {
+        if (mListener == null) return;
+        if (mQueue != null) {
+            mQueue.enqueue(new CallbackTask(mListener, CallbackTask.READY, 0));
+        } else {
+            mListener.onReady();
+        }
+    }
+
+    /**
+     * 丢弃还没送达的回调，用于回收复用
+     */
+    void cancel() {
+        dropChanging();
+        mHasLast = false;
+        if (mQueue != null) {
+            mQueue.clear();
+        }
+    }
+
+    private void dropChanging() {
+        mHasPending = false;
+        mClock.removeFrameCallback(mFrameCallback);
+    }
+
+    private void flushChanging() {
+        if (!mHasPending || mListener == null) return;
+
+        long now = mClock.uptimeMillis();
+        if (mHasLast && now - mLastTime < mMinInterval) {
+            // 间隔不够，下一帧再看，送达时取那时最新的值
+            mClock.removeFrameCallback(mFrameCallback);
+            mClock.postFrameCallback(mFrameCallback);
+            return;
+        }
+
+        mHasPending = false;
+        if (mHasLast && Math.abs(mPendingValue - mLastValue) < mMinDelta) return;
+
+        mHasLast = true;
+        mLastTime = now;
+        mLastValue = mPendingValue;
+        if (mQueue != null) {
+            mQueue.enqueueChanging(mListener, mPendingValue);
+        } else {
+            mListener.onChanging(mPendingValue);
+        }
+    }
+
+    /////////////////////////////////////////////////////////
+    private static final class CallbackTask implements Runnable {
+        static final int CHANGING = 0;
+        static final int SELECT = 1;
+        static final int LIMIT = 2;
+        static final int READY = 3;
+
+        final IWaveSelectorListener listener;
+        final int type;
+        // 排队中的 onChanging 会被更新为最新值，由 SerialQueue 的锁保护
+        long value;
+
+        CallbackTask(IWaveSelectorListener listener, int type, long value) {
+            this.listener = listener;
+            this.type = type;
+            this.value = value;
+        }
+
+        @Override
+        public void run() {
+            switch (type) {
+                case CHANGING:
+                    listener.onChanging(value);
+                    break;
+                case SELECT:
+                    listener.onSelect(value);
+                    break;
+                case LIMIT:
+                    listener.onLimit();
+                    break;
+                default:
+                    listener.onReady();
+                    break;
+            }
+        }
+    }
+
+    /////////////////////////////////////////////////////////
+
+    /**
+     * 在 executor 上串行执行，同一时刻最多占用一个线程
+     */
+    private static final class SerialQueue implements Runnable {
+        private final Executor mExecutor;
+        private final ArrayDeque<CallbackTask> mTasks = new ArrayDeque<>();
+        private boolean mActive;
+
+        SerialQueue(Executor executor) {
+            mExecutor = executor;
+        }
+
+        void enqueue(CallbackTask task) {
+            synchronized (this) {
+                mTasks.add(task);
+                if (mActive) return;
+                mActive = true;
+            }
+            mExecutor.execute(this);
+        }
+
+        /**
+         * 队尾是还没执行的 onChanging 时直接更新它的值
+         */
+        void enqueueChanging(IWaveSelectorListener listener, long value) {
+            synchronized (this) {
+                CallbackTask last = mTasks.peekLast();
+                if (last != null && last.type == CallbackTask.CHANGING && last.listener == listener) {
+                    last.value = value;
+                    return;
+                }
+            }
+            enqueue(new CallbackTask(listener, CallbackTask.CHANGING, value));
+        }
+
+        synchronized void clear() {
+            mTasks.clear();
+        }
+
+        @Override
+        public void run() {
+            boolean drained = false;
+            try {
+                while (true) {
+                    CallbackTask task;
+                    synchronized (this) {
+                        task = mTasks.poll();
+                        if (task == null) {
+                            mActive = false;
+                            drained = true;
+                            return;
+                        }
+                    }
+                    task.run();
+                }
+            } finally {
+                // 回调抛出异常时交给 executor 处理，剩下的回调继续执行
+                if (!drained) {
+                    rescheduleRemaining();
+                }
+            }
+        }
+
+        private void rescheduleRemaining() {
+            synchronized (this) {
+                if (mTasks.isEmpty()) {
+                    mActive = false;
+                    return;
+                }
+            }
+            mExecutor.execute(this);
+        }
+    }
+}
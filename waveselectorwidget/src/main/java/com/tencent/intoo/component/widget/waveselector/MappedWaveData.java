@@ -0,0 +1,143 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * 通过内存映射读取波形缓存文件，数据不复制到Java堆
+ * <p>
+ * 打开时校验 magic、版本、头部CRC和文件长度，可选校验数据CRC。
+ * 校验失败抛出 {@link CorruptWaveCacheException}，调用方应删除缓存重新生成。
+ * 映射在 {@link #close()} 后仍可读取，直到对象被回收。
+ */
+public final class MappedWaveData implements IWaveDataSource, Closeable {
+
+    private final RandomAccessFile mFile;
+    private final ShortBuffer mValues;
+    private final int mVersion;
+    private final int mSampleRate;
+    private final int mSampleStep;
+    private final int mSize;
+
+    private MappedWaveData(RandomAccessFile file, MappedByteBuffer buffer, int version,
+                           int sampleRate, int sampleStep, int size) {
+        mFile = file;
+        buffer.position(WaveCacheFormat.HEADER_SIZE);
+        mValues = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+        mVersion = version;
+        mSampleRate = sampleRate;
+        mSampleStep = sampleStep;
+        mSize = size;
+    }
+
+    /**
+     * 打开并校验全部数据
+     */
+    public static MappedWaveData open(File file) throws IOException {
+        return open(file, true);
+    }
+
+    /**
+     * @param file       缓存文件
+     * @param verifyData 是否校验数据CRC，需要读取整个文件
+     */
+    public static MappedWaveData open(File file, boolean verifyData) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            long length = raf.length();
+            if (length < WaveCacheFormat.HEADER_SIZE) {
+                throw new CorruptWaveCacheException("file too short. length:" + length);
+            }
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buffer.getInt(0) != WaveCacheFormat.MAGIC) {
+                throw new CorruptWaveCacheException("bad magic.");
+            }
+            int version = buffer.getShort(WaveCacheFormat.OFFSET_VERSION) & 0xFFFF;
+            if (version == 0 || version > WaveCacheFormat.VERSION) {
+                throw new CorruptWaveCacheException("unsupported version:" + version);
+            }
+            if (WaveCacheFormat.headerCrc(buffer, 0) != buffer.getInt(WaveCacheFormat.OFFSET_HEADER_CRC)) {
+                throw new CorruptWaveCacheException("header crc mismatch.");
+            }
+            int headerSize = buffer.getShort(WaveCacheFormat.OFFSET_HEADER_SIZE) & 0xFFFF;
+            if (headerSize != WaveCacheFormat.HEADER_SIZE) {
+                throw new CorruptWaveCacheException("bad header size:" + headerSize);
+            }
+            int sampleRate = buffer.getInt(WaveCacheFormat.OFFSET_SAMPLE_RATE);
+            int sampleStep = buffer.getInt(WaveCacheFormat.OFFSET_SAMPLE_STEP);
+            int count = buffer.getInt(WaveCacheFormat.OFFSET_POINT_COUNT);
+            if (count < 0 || WaveCacheFormat.HEADER_SIZE + count * 2L != length) {
+                throw new CorruptWaveCacheException("length mismatch. count:" + count + ", length:" + length);
+            }
+            if (verifyData && dataCrc(buffer, count) != buffer.getInt(WaveCacheFormat.OFFSET_DATA_CRC)) {
+                throw new CorruptWaveCacheException("data crc mismatch.");
+            }
+            return new MappedWaveData(raf, buffer, version, sampleRate, sampleStep, count);
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        } catch (RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    private static int dataCrc(ByteBuffer buffer, int count) {
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[8192];
+        ByteBuffer data = buffer.duplicate();
+        data.position(WaveCacheFormat.HEADER_SIZE);
+        int remaining = count * 2;
+        while (remaining > 0) {
+            int n = Math.min(chunk.length, remaining);
+            data.get(chunk, 0, n);
+            crc.update(chunk, 0, n);
+            remaining -= n;
+        }
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    @Override
+    public int getVolume(int index) {
+        return mValues.get(index) & ShortWaveData.MAX_VOLUME;
+    }
+
+    /**
+     * 由系统按页加载，不需要预取
+     */
+    @Override
+    public void prefetch(int from, int to) {
+    }
+
+    public int getVersion() {
+        return mVersion;
+    }
+
+    public int getSampleRate() {
+        return mSampleRate;
+    }
+
+    public int getSampleStep() {
+        return mSampleStep;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mFile.close();
+    }
+}
@@ -0,0 +1,132 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.nio.ShortBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import android.support.annotation.RequiresApi;
+
+/**
+ * 多线程波形提取，适用于已完整解码或内存映射的长音频
+ * <p>
+ * 按绘制点把PCM切分给 ForkJoinPool，每个任务把结果写到对应下标，合并后即为顺序结果。
+ * 输出与 {@link PcmWaveExtractor} 一次性输入全部数据后 flush 的结果逐位一致。
+ */
+@RequiresApi(21)
+public final class ParallelWaveAnalyzer {
+    // 每个任务至少处理的采样数，太小时任务调度的开销超过计算
+    private static final int MIN_SAMPLES_PER_TASK = 64 * 1024;
+
+    private final int mChannelCount;
+    private final int mSampleStep;
+    private final int mMode;
+    private final ForkJoinPool mPool;
+    // 每个绘制点对应的采样数（所有声道）
+    private final long mSamplesPerPoint;
+
+    /**
+     * 使用公共线程池
+     */
+    public ParallelWaveAnalyzer(int channelCount, int sampleStep, int mode) {
+        this(channelCount, sampleStep, mode, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param channelCount 声道数
+     * @param sampleStep   每个绘制点对应的波形点数
+     * @param mode         {@link PcmWaveExtractor#MODE_PEAK} 或 {@link PcmWaveExtractor#MODE_RMS}
+     * @param pool         线程池
+     */
+    public ParallelWaveAnalyzer(int channelCount, int sampleStep, int mode, ForkJoinPool pool) {
+        if (channelCount <= 0) throw new IllegalArgumentException("channelCount must be positive. " + channelCount);
+        if (pool == null) throw new IllegalArgumentException("pool must not be null.");
+        mChannelCount = channelCount;
+        mSampleStep = Math.max(1, sampleStep);
+        mMode = mode;
+        mPool = pool;
+        mSamplesPerPoint = (long) mSampleStep * PcmWaveExtractor.SAMPLES_PER_FRAME * channelCount;
+    }
+
+    /**
+     * @param pcm    16位PCM采样，多声道时为交织数据
+     * @param offset 起始位置
+     * @param length 采样数
+     * @return 每个绘制点的音量
+     */
+    public int[] analyze(short[] pcm, int offset, int length) {
+        return analyze(ShortBuffer.wrap(pcm, offset, length));
+    }
+
+    /**
+     * 分析 position 到 limit 之间的采样，不改变 buffer 的位置，可以是内存映射的文件
+     *
+     * @param pcm 16位PCM采样，多声道时为交织数据
+     * @return 每个绘制点的音量
+     */
+    public int[] analyze(ShortBuffer pcm) {
+        int[] volumes = new int[getPointCount(pcm.remaining())];
+        if (volumes.length == 0) return volumes;
+        int pointsPerTask = (int) Math.max(1, MIN_SAMPLES_PER_TASK / mSamplesPerPoint);
+        mPool.invoke(new AnalyzeTask(pcm, pcm.position(), pcm.limit(), volumes, 0, volumes.length, pointsPerTask));
+        return volumes;
+    }
+
+    /**
+     * @param sampleCount 采样数（所有声道）
+     * @return 绘制点数，不足一个绘制点的尾部也输出一个点
+     */
+    public int getPointCount(long sampleCount) {
+        return (int) ((sampleCount + mSamplesPerPoint - 1) / mSamplesPerPoint);
+    }
+
+    /**
+     * 计算一个绘制点的音量，与 {@link PcmWaveExtractor} 的累计方式一致
+     */
+    private int computePoint(ShortBuffer pcm, int from, int to) {
+        int peak = 0;
+        long sumSquares = 0;
+        for (int i = from; i < to; i++) {
+            short sample = pcm.get(i);
+            int abs = sample < 0 ? -sample : sample;
+            if (abs > peak) peak = abs;
+            sumSquares += sample * sample;
+        }
+        return PcmWaveExtractor.computeVolume(mMode, peak, sumSquares, to - from);
+    }
+
+    /////////////////////////////////////////////////////////
+    private final class AnalyzeTask extends RecursiveAction {
+        private final ShortBuffer mPcm;
+        private final int mStart;
+        private final int mEnd;
+        private final int[] mVolumes;
+        private final int mFromPoint;
+        private final int mToPoint;
+        private final int mPointsPerTask;
+
+        AnalyzeTask(ShortBuffer pcm, int start, int end, int[] volumes, int fromPoint, int toPoint, int pointsPerTask) {
+            mPcm = pcm;
+            mStart = start;
+            mEnd = end;
+            mVolumes = volumes;
+            mFromPoint = fromPoint;
+            mToPoint = toPoint;
+            mPointsPerTask = pointsPerTask;
+        }
+
+        @Override
+        protected void compute() {
+            if (mToPoint - mFromPoint <= mPointsPerTask) {
+                for (int point = mFromPoint; point < mToPoint; point++) {
+                    int from = (int) (mStart + point * mSamplesPerPoint);
+                    int to = (int) Math.min(mEnd, from + mSamplesPerPoint);
+                    mVolumes[point] = computePoint(mPcm, from, to);
+                }
+                return;
+            }
+            int mid = (mFromPoint + mToPoint) >>> 1;
+            invokeAll(new AnalyzeTask(mPcm, mStart, mEnd, mVolumes, mFromPoint, mid, mPointsPerTask),
+                    new AnalyzeTask(mPcm, mStart, mEnd, mVolumes, mid, mToPoint, mPointsPerTask));
+        }
+    }
+}
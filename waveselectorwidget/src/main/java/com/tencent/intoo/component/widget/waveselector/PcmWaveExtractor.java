@@ -0,0 +1,185 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+/**
+ * 流式PCM波形提取
+ * <p>
+ * 逐块输入16位PCM（单声道或多声道交织），每 {@link #SAMPLES_PER_FRAME} 个采样为一个波形点，
+ * 每 sampleStep 个波形点输出一个绘制点的音量，sampleStep 通常由
+ * {@link WaveSelector#calcSampleStep(int, int, int)} 计算。
+ * 只保存当前绘制点的累计值，不缓存整首音频，可以边解码边绘制。
+ * <p>
+ * 输出音量范围 0 ~ 65535，与 {@link WaveSelector#setData(java.util.List)} 一致。
+ * 非线程安全，应在同一个解码线程中调用。
+ */
+public final class PcmWaveExtractor {
+    // 峰值
+    public static final int MODE_PEAK = 0;
+    // 均方根
+    public static final int MODE_RMS = 1;
+
+    // 每个波形点对应的采样数，44100Hz时约23.22ms
+    public static final int SAMPLES_PER_FRAME = 1024;
+
+    private final int mChannelCount;
+    private final int mSampleStep;
+    private final int mMode;
+    private final IVolumeReceiver mReceiver;
+    // 每个绘制点对应的单声道采样数
+    private final int mSamplesPerPoint;
+
+    // 当前绘制点的累计值
+    private int mPeak;
+    private long mSumSquares;
+    private int mSampleCount;
+    private int mChannel;
+
+    // 跨块的半个采样
+    private boolean mHasPendingByte;
+    private byte mPendingByte;
+
+    private int mPointCount;
+
+    /**
+     * @param sampleRate         采样率
+     * @param channelCount       声道数
+     * @param drawPointCount     满屏绘制点数
+     * @param drawDurationSecond 满屏时长
+     * @param mode               {@link #MODE_PEAK} 或 {@link #MODE_RMS}
+     * @param receiver           音量输出
+     */
+    public PcmWaveExtractor(int sampleRate, int channelCount, int drawPointCount, int drawDurationSecond,
+                            int mode, IVolumeReceiver receiver) {
+        this(channelCount, WaveSelector.calcSampleStep(sampleRate, drawPointCount, drawDurationSecond), mode, receiver);
+    }
+
+    /**
+     * @param channelCount 声道数
+     * @param sampleStep   每个绘制点对应的波形点数
+     * @param mode         {@link #MODE_PEAK} 或 {@link #MODE_RMS}
+     * @param receiver     音量输出
+     */
+    public PcmWaveExtractor(int channelCount, int sampleStep, int mode, IVolumeReceiver receiver) {
+        if (channelCount <= 0) throw new IllegalArgumentException("channelCount must be positive. " + channelCount);
+        if (receiver == null) throw new IllegalArgumentException("receiver must not be null.");
+        mChannelCount = channelCount;
+        mSampleStep = Math.max(1, sampleStep);
+        mMode = mode;
+        mReceiver = receiver;
+        mSamplesPerPoint = mSampleStep * SAMPLES_PER_FRAME;
+    }
+
+    public int getSampleStep() {
+        return mSampleStep;
+    }
+
+    public int getChannelCount() {
+        return mChannelCount;
+    }
+
+    /**
+     * @return 已输出的绘制点数
+     */
+    public int getPointCount() {
+        return mPointCount;
+    }
+
+    /**
+     * 输入一块16位小端PCM数据，块的长度可以是奇数
+     */
+    public void feed(byte[] pcm, int offset, int length) {
+        int pos = offset;
+        int end = offset + length;
+        if (mHasPendingByte && pos < end) {
+            mHasPendingByte = false;
+            accept((short) ((mPendingByte & 0xff) | (pcm[pos++] << 8)));
+        }
+        while (pos + 1 < end) {
+            accept((short) ((pcm[pos] & 0xff) | (pcm[pos + 1] << 8)));
+            pos += 2;
+        }
+        if (pos < end) {
+            mHasPendingByte = true;
+            mPendingByte = pcm[pos];
+        }
+    }
+
+    /**
+     * 输入一块16位PCM采样，多声道时为交织数据
+     */
+    public void feed(short[] samples, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            accept(samples[i]);
+        }
+    }
+
+    /**
+     * 音频结束，输出最后不足一个绘制点的数据
+     */
+    public void flush() {
+        if (mSampleCount > 0 || mChannel > 0) {
+            emit();
+        }
+        mHasPendingByte = false;
+    }
+
+    /**
+     * 清空状态，重新开始提取
+     */
+    public void reset() {
+        mPeak = 0;
+        mSumSquares = 0;
+        mSampleCount = 0;
+        mChannel = 0;
+        mHasPendingByte = false;
+        mPointCount = 0;
+    }
+
+    private void accept(short sample) {
+        int abs = sample < 0 ? -sample : sample;
+        if (abs > mPeak) mPeak = abs;
+        mSumSquares += sample * sample;
+
+        if (++mChannel == mChannelCount) {
+            mChannel = 0;
+            if (++mSampleCount == mSamplesPerPoint) {
+                emit();
+            }
+        }
+    }
+
+    private void emit() {
+        mReceiver.onVolume(mPointCount++, computeVolume(mMode, mPeak, mSumSquares, mSampleCount * mChannelCount + mChannel));
+        mPeak = 0;
+        mSumSquares = 0;
+        mSampleCount = 0;
+        mChannel = 0;
+    }
+
+    /**
+     * 由累计值计算音量，16位采样的幅度放大两倍映射到 0 ~ 65535
+     *
+     * @param mode       {@link #MODE_PEAK} 或 {@link #MODE_RMS}
+     * @param peak       最大幅度
+     * @param sumSquares 采样平方和
+     * @param samples    采样数（所有声道）
+     * @return 音量
+     */
+    static int computeVolume(int mode, int peak, long sumSquares, int samples) {
+        int volume;
+        if (mode == MODE_RMS) {
+            volume = samples > 0 ? (int) Math.round(Math.sqrt((double) sumSquares / samples) * 2) : 0;
+        } else {
+            volume = peak * 2;
+        }
+        return Math.min(volume, ShortWaveData.MAX_VOLUME);
+    }
+
+    /////////////////////////////////////////////////////////
+    public interface IVolumeReceiver {
+        /**
+         * @param index  绘制点下标
+         * @param volume 音量，0 ~ 65535
+         */
+        void onVolume(int index, int volume);
+    }
+}
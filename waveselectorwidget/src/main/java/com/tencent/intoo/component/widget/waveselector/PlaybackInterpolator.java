@@ -0,0 +1,66 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+/**
+ * 播放位置插值
+ * <p>
+ * 播放器返回的位置通常几十毫秒才更新一次，两次更新之间按帧时间向前推算，最多推算一个更新间隔；
+ * 位置超过 {@link #PAUSE_INTERVALS} 个更新间隔不变视为暂停，回到播放器的位置。
+ * 新的位置略小于推算值时保持不动，避免高亮来回跳，回退超过一个更新间隔视为 seek。
+ */
+final class PlaybackInterpolator {
+    // 更新间隔的上限，间隔更长的播放器不再推算到间隔结束
+    static final long MAX_EXTRAPOLATE_MS = 500;
+    // 还没观察到更新间隔时使用
+    static final long DEFAULT_INTERVAL_MS = 100;
+    static final int PAUSE_INTERVALS = 2;
+
+    private long mReported = -1;
+    private long mReportedAt;
+    private long mLast = -1;
+    // 观察到的更新间隔，变长时立即跟上，变短时逐渐减小，容忍间隔抖动
+    private long mInterval = DEFAULT_INTERVAL_MS;
+    private boolean mPaused;
+
+    void reset() {
+        mReported = -1;
+        mReportedAt = 0;
+        mLast = -1;
+        mInterval = DEFAULT_INTERVAL_MS;
+        mPaused = false;
+    }
+
+    /**
+     * 每帧调用一次
+     *
+     * @param reported  播放器返回的位置
+     * @param frameTime 当前帧时间
+     * @return 估计的播放位置
+     */
+    long update(long reported, long frameTime) {
+        long position;
+        if (reported != mReported) {
+            // 暂停到恢复的时长不是更新间隔
+            if (mReported >= 0 && !mPaused) {
+                long interval = Math.max(0, Math.min(frameTime - mReportedAt, MAX_EXTRAPOLATE_MS));
+                mInterval = Math.max(interval, (mInterval * 3 + interval) / 4);
+            }
+            mReported = reported;
+            mReportedAt = frameTime;
+            mPaused = false;
+            position = reported;
+        } else {
+            long elapsed = Math.max(0, frameTime - mReportedAt);
+            if (elapsed > mInterval * PAUSE_INTERVALS) {
+                mPaused = true;
+                mLast = reported;
+                return reported;
+            }
+            position = reported + Math.min(elapsed, mInterval);
+        }
+        if (mLast >= 0 && position < mLast && mLast - position <= mInterval) {
+            position = mLast;
+        }
+        mLast = position;
+        return position;
+    }
+}
@@ -0,0 +1,105 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import android.animation.TimeInterpolator;
+
+/**
+ * fling 和 seek 的调度
+ * <p>
+ * 同一时刻最多一个滚动，开始新的滚动或 {@link #stop()} 时取消进行中的滚动，被取消的滚动不回调停止；
+ * 每次滚动停止时回调一次 {@link ICallback#onScrollSettled(int)}。
+ */
+final class ScrollController {
+
+    /**
+     * fling 使用的 Scroller，由控件调用 fling 设置最终位置
+     */
+    interface IFlingScroller extends FlingSettler.IScroller {
+        void abortAnimation();
+    }
+
+    interface ICallback {
+        /**
+         * 滚动过程中位置变化
+         */
+        void onScrollFrame(int x);
+
+        /**
+         * 滚动停止
+         *
+         * @param finalX 开始时确定的最终位置
+         */
+        void onScrollSettled(int finalX);
+    }
+
+    private final WaveViewport mViewport;
+    private final IFlingScroller mFlingScroller;
+    private final FlingSettler mFlingSettler;
+    private final SeekScroller mSeekScroller;
+    private final FlingSettler mSeekSettler;
+    private final ICallback mCallback;
+
+    ScrollController(IFrameClock clock, WaveViewport viewport, IFlingScroller flingScroller, final ICallback callback) {
+        mViewport = viewport;
+        mFlingScroller = flingScroller;
+        FlingSettler.ICallback settlerCallback = new FlingSettler.ICallback() {
+            @Override
+            public void onScrollFrame(int x) {
+                callback.onScrollFrame(x);
+            }
+
+            @Override
+            public void onSettled(int finalX) {
+                callback.onScrollSettled(finalX);
+            }
+        };
+        mFlingSettler = new FlingSettler(clock, flingScroller, settlerCallback);
+        mSeekScroller = new SeekScroller(clock);
+        mSeekSettler = new FlingSettler(clock, mSeekScroller, settlerCallback);
+        mCallback = callback;
+    }
+
+    /**
+     * Scroller 开始 fling 后调用
+     */
+    void startFling() {
+        mSeekScroller.abort();
+        mSeekSettler.cancel();
+        mFlingSettler.start();
+    }
+
+    /**
+     * 取消进行中的滚动后滚动到指定时间，时长不大于0时同步回调停止
+     *
+     * @param time         时间，毫秒，超出范围时停在边界
+     * @param duration     动画时长，毫秒
+     * @param interpolator 动画插值，null 时减速
+     * @return 目标位置取整后的像素
+     */
+    int seekTo(long time, int duration, TimeInterpolator interpolator) {
+        stop();
+        int targetX = mViewport.setTargetTime(time);
+        if (duration <= 0) {
+            mCallback.onScrollSettled(targetX);
+        } else {
+            mSeekScroller.startScroll(mViewport.getScrollPix(), targetX, duration, interpolator);
+            mSeekSettler.start();
+        }
+        return targetX;
+    }
+
+    /**
+     * 取消进行中的 fling 和 seek，不回调停止
+     */
+    void stop() {
+        if (!mFlingScroller.isFinished()) {
+            mFlingScroller.abortAnimation();
+        }
+        mFlingSettler.cancel();
+        mSeekScroller.abort();
+        mSeekSettler.cancel();
+    }
+
+    boolean isScrolling() {
+        return mFlingSettler.isPending() || mSeekSettler.isPending();
+    }
+}
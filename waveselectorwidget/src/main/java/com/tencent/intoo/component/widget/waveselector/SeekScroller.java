@@ -0,0 +1,79 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import android.animation.TimeInterpolator;
+
+/**
+ * seek 动画，按帧时钟从起点移动到终点
+ * <p>
+ * 与 {@link FlingSettler} 配合使用，停止判定和 fling 一致；不经过触摸事件和 VelocityTracker。
+ */
+final class SeekScroller implements FlingSettler.IScroller {
+    // 默认减速，与 DecelerateInterpolator 相同
+    private static final TimeInterpolator DECELERATE = new TimeInterpolator() {
+        @Override
+        public float getInterpolation(float input) {
+            return 1 - (1 - input) * (1 - input);
+        }
+    };
+
+    private final IFrameClock mClock;
+    private TimeInterpolator mInterpolator = DECELERATE;
+    private int mStartX;
+    private int mCurrX;
+    private int mFinalX;
+    private long mStartTime;
+    private int mDuration;
+    private boolean mFinished = true;
+
+    SeekScroller(IFrameClock clock) {
+        mClock = clock;
+    }
+
+    /**
+     * @param duration     动画时长，毫秒
+     * @param interpolator 插值，null 时减速
+     */
+    void startScroll(int startX, int finalX, int duration, TimeInterpolator interpolator) {
+        mStartX = startX;
+        mCurrX = startX;
+        mFinalX = finalX;
+        mDuration = duration;
+        mInterpolator = interpolator != null ? interpolator : DECELERATE;
+        mStartTime = mClock.uptimeMillis();
+        mFinished = false;
+    }
+
+    void abort() {
+        mFinished = true;
+    }
+
+    @Override
+    public boolean computeScrollOffset() {
+        if (mFinished) return false;
+
+        long passed = mClock.uptimeMillis() - mStartTime;
+        if (passed < mDuration) {
+            float fraction = mInterpolator.getInterpolation((float) passed / mDuration);
+            mCurrX = mStartX + Math.round(fraction * (mFinalX - mStartX));
+        } else {
+            mCurrX = mFinalX;
+            mFinished = true;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return mFinished;
+    }
+
+    @Override
+    public int getCurrX() {
+        return mCurrX;
+    }
+
+    @Override
+    public int getFinalX() {
+        return mFinalX;
+    }
+}
@@ -0,0 +1,220 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 量化到16位的波形数据存储
+ * <p>
+ * 每个波形点只占用 2 字节，取代每个点一个 {@link WaveSelector.Volume} 对象的存储方式。
+ * 音量按无符号16位保存，超出 0 ~ 65535 的值会被截断。
+ * 作为 {@link IWaveDataSource} 时数据全部在内存中，不需要预取。
+ */
+public final class ShortWaveData implements IWaveDataSource {
+    public static final int MAX_VOLUME = 0xFFFF;
+
+    private static final short[] EMPTY = new short[0];
+
+    private short[] mValues = EMPTY;
+    private int mSize;
+
+    /**
+     * 批量设置数据，容量足够时复用已有数组
+     *
+     * @param volumes 音量数据
+     */
+    public void set(List<Integer> volumes) {
+        int count = volumes.size();
+        if (mValues.length < count) {
+            mValues = new short[count];
+        }
+        for (int i = 0; i < count; i++) {
+            mValues[i] = quantize(volumes.get(i));
+        }
+        mSize = count;
+    }
+
+    /**
+     * 批量设置数据，不经过装箱
+     *
+     * @param volumes 音量数据
+     * @param offset  起始位置
+     * @param length  个数
+     */
+    public void set(int[] volumes, int offset, int length) {
+        short[] values = prepareSet(length);
+        quantize(volumes, offset, length, values, 0);
+        commitSet(values, length);
+    }
+
+    /**
+     * 批量设置数据，short 按无符号16位音量解释
+     */
+    public void set(short[] volumes, int offset, int length) {
+        short[] values = prepareSet(length);
+        System.arraycopy(volumes, offset, values, 0, length);
+        commitSet(values, length);
+    }
+
+    /**
+     * 批量设置 position 到 limit 之间的数据，不改变 buffer 的位置
+     */
+    public void set(ShortBuffer volumes) {
+        int length = volumes.remaining();
+        short[] values = prepareSet(length);
+        copy(volumes, values, 0, length);
+        commitSet(values, length);
+    }
+
+    /**
+     * 批量设置数据，每个音量为按 buffer 字节序排列的16位无符号数，可以是 direct buffer
+     *
+     * @param volumes 音量数据，不改变位置
+     * @param offset  起始字节
+     * @param length  字节数，必须为偶数，offset + length 不超过 limit
+     */
+    public void set(ByteBuffer volumes, int offset, int length) {
+        int count = checkByteLength(length);
+        short[] values = prepareSet(count);
+        copy(volumes, offset, count, values, 0);
+        commitSet(values, count);
+    }
+
+    /**
+     * 追加数据，容量按1.5倍增长，均摊O(1)
+     *
+     * @param volumes 音量数据
+     */
+    public void append(List<Integer> volumes) {
+        int count = volumes.size();
+        ensureCapacity(mSize + count);
+        for (int i = 0; i < count; i++) {
+            mValues[mSize + i] = quantize(volumes.get(i));
+        }
+        mSize += count;
+    }
+
+    /**
+     * 追加一个波形点
+     *
+     * @param volume 音量
+     */
+    public void append(int volume) {
+        ensureCapacity(mSize + 1);
+        mValues[mSize++] = quantize(volume);
+    }
+
+    public void append(int[] volumes, int offset, int length) {
+        ensureCapacity(mSize + length);
+        quantize(volumes, offset, length, mValues, mSize);
+        mSize += length;
+    }
+
+    public void append(short[] volumes, int offset, int length) {
+        ensureCapacity(mSize + length);
+        System.arraycopy(volumes, offset, mValues, mSize, length);
+        mSize += length;
+    }
+
+    /**
+     * 追加 position 到 limit 之间的数据，不改变 buffer 的位置
+     */
+    public void append(ShortBuffer volumes) {
+        int length = volumes.remaining();
+        ensureCapacity(mSize + length);
+        copy(volumes, mValues, mSize, length);
+        mSize += length;
+    }
+
+    /**
+     * @param offset 起始字节
+     * @param length 字节数，必须为偶数
+     * @see #set(ByteBuffer, int, int)
+     */
+    public void append(ByteBuffer volumes, int offset, int length) {
+        int count = checkByteLength(length);
+        ensureCapacity(mSize + count);
+        copy(volumes, offset, count, mValues, mSize);
+        mSize += count;
+    }
+
+    public void clear() {
+        mSize = 0;
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    @Override
+    public int getVolume(int index) {
+        return mValues[index] & MAX_VOLUME;
+    }
+
+    @Override
+    public void prefetch(int from, int to) {
+    }
+
+    /**
+     * 容量足够时复用已有数组，否则返回新数组，复制成功后通过 {@link #commitSet(short[], int)} 生效。
+     * 复制方法都先检查范围，越界时不写入，原有数据保持不变
+     */
+    private short[] prepareSet(int count) {
+        return mValues.length < count ? new short[count] : mValues;
+    }
+
+    private void commitSet(short[] values, int count) {
+        mValues = values;
+        mSize = count;
+    }
+
+    static void quantize(int[] src, int offset, int length, short[] dst, int dstPos) {
+        checkRange(src.length, offset, length);
+        checkRange(dst.length, dstPos, length);
+        for (int i = 0; i < length; i++) {
+            dst[dstPos + i] = quantize(src[offset + i]);
+        }
+    }
+
+    static void copy(ShortBuffer src, short[] dst, int dstPos, int length) {
+        src.duplicate().get(dst, dstPos, length);
+    }
+
+    static void copy(ByteBuffer src, int offset, int count, short[] dst, int dstPos) {
+        checkRange(src.limit(), offset, count * 2);
+        checkRange(dst.length, dstPos, count);
+        // duplicate 之后字节序会重置为大端
+        ByteBuffer bytes = src.duplicate().order(src.order());
+        bytes.limit(offset + count * 2).position(offset);
+        bytes.asShortBuffer().get(dst, dstPos, count);
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException [offset, offset + length) 超出 [0, size)
+     */
+    static void checkRange(int size, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > size - length) {
+            throw new IndexOutOfBoundsException("offset:" + offset + ", length:" + length + ", size:" + size);
+        }
+    }
+
+    static int checkByteLength(int length) {
+        if (length < 0 || (length & 1) != 0) throw new IllegalArgumentException("length must be even. " + length);
+        return length / 2;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (mValues.length < capacity) {
+            mValues = Arrays.copyOf(mValues, Math.max(capacity, mValues.length + (mValues.length >> 1)));
+        }
+    }
+
+    static short quantize(int volume) {
+        if (volume < 0) return 0;
+        if (volume > MAX_VOLUME) return (short) MAX_VOLUME;
+        return (short) volume;
+    }
+}
@@ -0,0 +1,124 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 在后台为数据源构建多分辨率数据
+ * <p>
+ * 构建需要顺序读取整个数据源，对文件数据源就是读取整个文件，不能在绘制时进行。
+ * 第一次读取缩放层级时开始后台构建，构建完成前返回大小正确、音量为0的占位数据，滚动范围不变；
+ * 构建结果在主线程生效后回调 {@link ICallback#onPyramidReady()}。
+ * 只在主线程调用。
+ */
+final class SourcePyramidLoader {
+
+    interface ICallback {
+        void onPyramidReady();
+    }
+
+    private final Executor mBackgroundExecutor;
+    private final Executor mMainExecutor;
+    private final ICallback mCallback;
+
+    private IWaveData mSource;
+    private WavePyramid mPyramid;
+    private PlaceholderData mPlaceholder;
+    private boolean mLoading;
+    // 数据源每次更换加一，丢弃旧数据源的构建结果
+    private int mGeneration;
+
+    /**
+     * @param backgroundExecutor 构建使用的线程
+     * @param mainExecutor       把构建结果交回主线程
+     */
+    SourcePyramidLoader(Executor backgroundExecutor, Executor mainExecutor, ICallback callback) {
+        mBackgroundExecutor = backgroundExecutor;
+        mMainExecutor = mainExecutor;
+        mCallback = callback;
+    }
+
+    /**
+     * 更换数据源，丢弃已构建和正在构建的结果
+     */
+    void setSource(IWaveData source) {
+        if (source == mSource) return;
+        mSource = source;
+        mPyramid = null;
+        mLoading = false;
+        mGeneration++;
+    }
+
+    boolean isReady() {
+        return mPyramid != null;
+    }
+
+    /**
+     * @param level 缩放层级，大于0
+     * @return 该层的数据，还没构建完成时为占位数据
+     */
+    IWaveData getLevel(int level) {
+        if (mPyramid != null) return mPyramid.getLevel(level);
+        load();
+        int size = getLevelSize(mSource.size(), level);
+        if (mPlaceholder == null || mPlaceholder.mSize != size) {
+            mPlaceholder = new PlaceholderData(size);
+        }
+        return mPlaceholder;
+    }
+
+    /**
+     * @return 与 {@link WavePyramid} 一致的层级大小
+     */
+    static int getLevelSize(int baseSize, int level) {
+        int size = baseSize;
+        for (int i = 0; i < level; i++) {
+            if (size <= 1) return 0;
+            size = (size + 1) / 2;
+        }
+        return size;
+    }
+
+    private void load() {
+        if (mLoading || mSource == null) return;
+        mLoading = true;
+        final IWaveData source = mSource;
+        final int generation = mGeneration;
+        mBackgroundExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                WaveLog.beginSection("SourcePyramidLoader#build");
+                final WavePyramid pyramid = new WavePyramid();
+                pyramid.update(source);
+                WaveLog.endSection();
+                mMainExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != mGeneration) return;
+                        mPyramid = pyramid;
+                        mLoading = false;
+                        mCallback.onPyramidReady();
+                    }
+                });
+            }
+        });
+    }
+
+    /////////////////////////////////////////////////////////
+    private static final class PlaceholderData implements IWaveData {
+        private final int mSize;
+
+        PlaceholderData(int size) {
+            mSize = size;
+        }
+
+        @Override
+        public int size() {
+            return mSize;
+        }
+
+        @Override
+        public int getVolume(int index) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * 波形缓存文件格式，所有字段为小端
+ * <pre>
+ * 偏移  长度  字段
+ * 0     4     magic "WAVS"
+ * 4     2     版本
+ * 6     2     头部长度
+ * 8     4     采样率
+ * 12    4     sampleStep，见 {@link WaveSelector#calcSampleStep(int, int, int)}
+ * 16    4     波形点数
+ * 20    4     数据CRC32
+ * 24    4     保留
+ * 28    4     头部前28字节的CRC32
+ * 32    ...   波形点，每个为16位无符号音量
+ * </pre>
+ */
+final class WaveCacheFormat {
+    static final int MAGIC = 0x53564157; // "WAVS"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+
+    static final int OFFSET_VERSION = 4;
+    static final int OFFSET_HEADER_SIZE = 6;
+    static final int OFFSET_SAMPLE_RATE = 8;
+    static final int OFFSET_SAMPLE_STEP = 12;
+    static final int OFFSET_POINT_COUNT = 16;
+    static final int OFFSET_DATA_CRC = 20;
+    static final int OFFSET_HEADER_CRC = 28;
+
+    private WaveCacheFormat() {
+    }
+
+    /**
+     * @param header 小端，position 为头部起点
+     */
+    static void writeHeader(ByteBuffer header, int sampleRate, int sampleStep, int pointCount, int dataCrc) {
+        int start = header.position();
+        header.putInt(start, MAGIC);
+        header.putShort(start + OFFSET_VERSION, (short) VERSION);
+        header.putShort(start + OFFSET_HEADER_SIZE, (short) HEADER_SIZE);
+        header.putInt(start + OFFSET_SAMPLE_RATE, sampleRate);
+        header.putInt(start + OFFSET_SAMPLE_STEP, sampleStep);
+        header.putInt(start + OFFSET_POINT_COUNT, pointCount);
+        header.putInt(start + OFFSET_DATA_CRC, dataCrc);
+        header.putInt(start + OFFSET_DATA_CRC + 4, 0);
+        header.putInt(start + OFFSET_HEADER_CRC, headerCrc(header, start));
+    }
+
+    static int headerCrc(ByteBuffer header, int start) {
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < OFFSET_HEADER_CRC; i++) {
+            crc.update(header.get(start + i));
+        }
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,146 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+
+/**
+ * 写入波形缓存文件，格式见 {@link WaveCacheFormat}
+ * <p>
+ * 可以直接作为 {@link PcmWaveExtractor} 的输出，边解码边写入。数据先写到临时文件，
+ * {@link #finish()} 时写入头部并重命名，中途失败不会留下看起来有效的缓存文件。
+ * 非线程安全。
+ */
+public final class WaveCacheWriter implements PcmWaveExtractor.IVolumeReceiver, Closeable {
+    private static final int BUFFER_POINTS = 4096;
+
+    private final File mFile;
+    private final File mTempFile;
+    private final RandomAccessFile mOutput;
+    private final int mSampleRate;
+    private final int mSampleStep;
+
+    private final byte[] mBuffer = new byte[BUFFER_POINTS * 2];
+    private int mBufferPos;
+    private final CRC32 mCrc = new CRC32();
+    private int mPointCount;
+    private boolean mClosed;
+
+    /**
+     * @param file       缓存文件
+     * @param sampleRate 采样率
+     * @param sampleStep 每个绘制点对应的波形点数
+     */
+    public WaveCacheWriter(File file, int sampleRate, int sampleStep) throws IOException {
+        mFile = file;
+        mTempFile = new File(file.getPath() + ".tmp");
+        RandomAccessFile output = new RandomAccessFile(mTempFile, "rw");
+        try {
+            output.setLength(0);
+            // 头部占位，finish 时写入
+            output.write(new byte[WaveCacheFormat.HEADER_SIZE]);
+        } catch (IOException e) {
+            output.close();
+            mTempFile.delete();
+            throw e;
+        } catch (RuntimeException e) {
+            output.close();
+            mTempFile.delete();
+            throw e;
+        }
+        mOutput = output;
+        mSampleRate = sampleRate;
+        mSampleStep = sampleStep;
+    }
+
+    /**
+     * 一次写入整个波形
+     */
+    public static void write(File file, int sampleRate, int sampleStep, IWaveData data) throws IOException {
+        WaveCacheWriter writer = new WaveCacheWriter(file, sampleRate, sampleStep);
+        try {
+            for (int i = 0, size = data.size(); i < size; i++) {
+                writer.append(data.getVolume(i));
+            }
+            writer.finish();
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * 追加一个波形点
+     *
+     * @param volume 音量，超出 0 ~ 65535 的值会被截断
+     */
+    public void append(int volume) throws IOException {
+        if (mClosed) throw new IOException("writer already closed.");
+        if (mBufferPos == mBuffer.length) {
+            flushBuffer();
+        }
+        short value = ShortWaveData.quantize(volume);
+        mBuffer[mBufferPos++] = (byte) value;
+        mBuffer[mBufferPos++] = (byte) (value >> 8);
+        mPointCount++;
+    }
+
+    /**
+     * 作为 {@link PcmWaveExtractor} 的输出，写入失败时抛出 IllegalStateException
+     */
+    @Override
+    public void onVolume(int index, int volume) {
+        try {
+            append(volume);
+        } catch (IOException e) {
+            throw new IllegalStateException("write wave cache failed.", e);
+        }
+    }
+
+    public int getPointCount() {
+        return mPointCount;
+    }
+
+    /**
+     * 写入头部，落盘后替换目标文件
+     */
+    public void finish() throws IOException {
+        if (mClosed) throw new IOException("writer already closed.");
+        flushBuffer();
+        ByteBuffer header = ByteBuffer.allocate(WaveCacheFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        WaveCacheFormat.writeHeader(header, mSampleRate, mSampleStep, mPointCount, (int) mCrc.getValue());
+        mOutput.seek(0);
+        mOutput.write(header.array());
+        mOutput.getFD().sync();
+        mOutput.close();
+        mClosed = true;
+        if (!mTempFile.renameTo(mFile)) {
+            mTempFile.delete();
+            throw new IOException("rename failed. " + mFile);
+        }
+    }
+
+    /**
+     * 未 {@link #finish()} 时放弃写入并删除临时文件
+     */
+    @Override
+    public void close() throws IOException {
+        if (mClosed) return;
+        mClosed = true;
+        try {
+            mOutput.close();
+        } finally {
+            mTempFile.delete();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (mBufferPos == 0) return;
+        mOutput.write(mBuffer, 0, mBufferPos);
+        mCrc.update(mBuffer, 0, mBufferPos);
+        mBufferPos = 0;
+    }
+}
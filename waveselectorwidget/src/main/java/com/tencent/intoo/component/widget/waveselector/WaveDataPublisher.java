@@ -0,0 +1,261 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 供后台线程写入波形数据，发布不可变快照给绘制线程
+ * <p>
+ * 写入方法之间互斥，可以在任意线程调用；{@link #snapshot()} 不加锁，读到的快照总是完整的。
+ * 追加时在已发布长度之后原地写入，读者不会访问这部分数据，发布后才可见；
+ * 整体替换时使用新数组，旧快照保持不变。每次写入发布一个快照，解码时应按块追加。
+ */
+public final class WaveDataPublisher {
+
+    private final AtomicReference<WaveSnapshot> mSnapshot = new AtomicReference<>(WaveSnapshot.EMPTY);
+    private final CopyOnWriteArrayList<IPublishListener> mListeners = new CopyOnWriteArrayList<>();
+
+    // 以下只在持有锁时访问
+    private short[] mValues = new short[0];
+    private int mSize;
+    private int mGeneration;
+
+    /**
+     * @return 最新的快照，无锁
+     */
+    public WaveSnapshot snapshot() {
+        return mSnapshot.get();
+    }
+
+    /**
+     * 整体替换数据
+     *
+     * @param volumes 音量数据
+     */
+    public void set(List<Integer> volumes) {
+        WaveSnapshot snapshot;
+        synchronized (this) {
+            int count = volumes.size();
+            short[] values = new short[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = ShortWaveData.quantize(volumes.get(i));
+            }
+            snapshot = replace(values);
+        }
+        notifyPublish(snapshot);
+    }
+
+    /**
+     * @see ShortWaveData#set(int[], int, int)
+     */
+    public void set(int[] volumes, int offset, int length) {
+        WaveSnapshot snapshot;
+        synchronized (this) {
+            short[] values = new short[length];
+            ShortWaveData.quantize(volumes, offset, length, values, 0);
+            snapshot = replace(values);
+        }
+        notifyPublish(snapshot);
+    }
+
+    /**
+     * @see ShortWaveData#set(short[], int, int)
+     */
+    public void set(short[] volumes, int offset, int length) {
+        WaveSnapshot snapshot;
+        synchronized (this) {
+            short[] values = new short[length];
+            System.arraycopy(volumes, offset, values, 0, length);
+            snapshot = replace(values);
+        }
+        notifyPublish(snapshot);
+    }
+
+    /**
+     * @see ShortWaveData#set(ShortBuffer)
+     */
+    public void set(ShortBuffer volumes) {
+        WaveSnapshot snapshot;
+        synchronized (this) {
+            int length = volumes.remaining();
+            short[] values = new short[length];
+            ShortWaveData.copy(volumes, values, 0, length);
+            snapshot = replace(values);
+        }
+        notifyPublish(snapshot);
+    }
+
+    /**
+     * @see ShortWaveData#set(ByteBuffer, int, int)
+     */
+    public void set(ByteBuffer volumes, int offset, int length) {
+        int count = ShortWaveData.checkByteLength(length);
+        WaveSnapshot snapshot;
+        synchronized (this) {
+            short[] values = new short[count];
+            ShortWaveData.copy(volumes, offset, count, values, 0);
+            snapshot = replace(values);
+        }
+        notifyPublish(snapshot);
+    }
+
+    /**
+     * 在尾部追加数据
+     *
+     * @param volumes 音量数据
+     */
+    public void append(List<Integer> volumes) {
+        if (volumes.isEmpty()) return;
+        WaveSnapshot snapshot;
+        synchronized (this) {
+            int count = volumes.size();
+            ensureCapacity(mSize + count);
+            for (int i = 0; i < count; i++) {
+                mValues[mSize + i] = ShortWaveData.quantize(volumes.get(i));
+            }
+            mSize += count;
+            snapshot = publish(mGeneration);
+        }
+        notifyPublish(snapshot);
+    }
+
+    /**
+     * 追加一个波形点
+     *
+     * @param volume 音量
+     */
+    public void append(int volume) {
+        WaveSnapshot snapshot;
+        synchronized (this) {
+            ensureCapacity(mSize + 1);
+            mValues[mSize++] = ShortWaveData.quantize(volume);
+            snapshot = publish(mGeneration);
+        }
+        notifyPublish(snapshot);
+    }
+
+    /**
+     * @see ShortWaveData#append(int[], int, int)
+     */
+    public void append(int[] volumes, int offset, int length) {
+        if (length == 0) return;
+        WaveSnapshot snapshot;
+        synchronized (this) {
+            ensureCapacity(mSize + length);
+            ShortWaveData.quantize(volumes, offset, length, mValues, mSize);
+            mSize += length;
+            snapshot = publish(mGeneration);
+        }
+        notifyPublish(snapshot);
+    }
+
+    /**
+     * @see ShortWaveData#append(short[], int, int)
+     */
+    public void append(short[] volumes, int offset, int length) {
+        if (length == 0) return;
+        WaveSnapshot snapshot;
+        synchronized (this) {
+            ensureCapacity(mSize + length);
+            System.arraycopy(volumes, offset, mValues, mSize, length);
+            mSize += length;
+            snapshot = publish(mGeneration);
+        }
+        notifyPublish(snapshot);
+    }
+
+    /**
+     * 追加 position 到 limit 之间的数据，不改变 buffer 的位置
+     */
+    public void append(ShortBuffer volumes) {
+        int length = volumes.remaining();
+        if (length == 0) return;
+        WaveSnapshot snapshot;
+        synchronized (this) {
+            ensureCapacity(mSize + length);
+            ShortWaveData.copy(volumes, mValues, mSize, length);
+            mSize += length;
+            snapshot = publish(mGeneration);
+        }
+        notifyPublish(snapshot);
+    }
+
+    /**
+     * @see ShortWaveData#append(ByteBuffer, int, int)
+     */
+    public void append(ByteBuffer volumes, int offset, int length) {
+        int count = ShortWaveData.checkByteLength(length);
+        if (count == 0) return;
+        WaveSnapshot snapshot;
+        synchronized (this) {
+            ensureCapacity(mSize + count);
+            ShortWaveData.copy(volumes, offset, count, mValues, mSize);
+            mSize += count;
+            snapshot = publish(mGeneration);
+        }
+        notifyPublish(snapshot);
+    }
+
+    public void clear() {
+        WaveSnapshot snapshot;
+        synchronized (this) {
+            mValues = new short[0];
+            mSize = 0;
+            snapshot = publish(++mGeneration);
+        }
+        notifyPublish(snapshot);
+    }
+
+    /**
+     * 监听在写入线程回调
+     */
+    public void addListener(IPublishListener listener) {
+        mListeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(IPublishListener listener) {
+        mListeners.remove(listener);
+    }
+
+    /**
+     * 整体替换时总是使用新数组，旧快照不受影响；复制成功后才替换，复制失败时保持原有数据
+     */
+    private WaveSnapshot replace(short[] values) {
+        mValues = values;
+        mSize = values.length;
+        return publish(++mGeneration);
+    }
+
+    private WaveSnapshot publish(int generation) {
+        WaveSnapshot snapshot = new WaveSnapshot(mValues, mSize, generation);
+        mSnapshot.set(snapshot);
+        return snapshot;
+    }
+
+    private void notifyPublish(WaveSnapshot snapshot) {
+        for (IPublishListener listener : mListeners) {
+            listener.onPublish(snapshot);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (mValues.length < capacity) {
+            // 扩容后的新数组只被之后的快照引用，旧快照仍指向旧数组
+            mValues = Arrays.copyOf(mValues, Math.max(capacity, mValues.length + (mValues.length >> 1)));
+        }
+    }
+
+    /////////////////////////////////////////////////////////
+    public interface IPublishListener {
+        /**
+         * 在写入线程回调，不应做耗时操作
+         *
+         * @param snapshot 新发布的快照
+         */
+        void onPublish(WaveSnapshot snapshot);
+    }
+}
@@ -0,0 +1,118 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import android.support.annotation.Nullable;
+import android.support.v4.os.TraceCompat;
+import android.util.Log;
+
+/**
+ * 组件内日志和trace的出口，默认不输出日志
+ * <p>
+ * 组件内带字符串拼接的日志都先判断 {@link #isEnabled()}，关闭时不拼接字符串、不分配内存。
+ * 调试时可以通过 {@link #setLogger(ILogger)} 设置 {@link #ANDROID} 或接入自己的日志系统。
+ */
+public final class WaveLog {
+
+    // 输出到logcat
+    public static final ILogger ANDROID = new ILogger() {
+        @Override
+        public void log(int priority, String tag, String msg) {
+            Log.println(priority, tag, msg);
+        }
+    };
+
+    // 输出到systrace
+    public static final ITracer SYSTRACE = new ITracer() {
+        @Override
+        public void beginSection(String name) {
+            TraceCompat.beginSection(name);
+        }
+
+        @Override
+        public void endSection() {
+            TraceCompat.endSection();
+        }
+    };
+
+    private static volatile ILogger sLogger;
+    private static volatile ITracer sTracer = SYSTRACE;
+
+    private WaveLog() {
+    }
+
+    /**
+     * @param logger 日志输出，null 关闭日志
+     */
+    public static void setLogger(@Nullable ILogger logger) {
+        sLogger = logger;
+    }
+
+    /**
+     * 应在绘制开始前设置，避免同一段trace的开始和结束落在不同的tracer上
+     *
+     * @param tracer trace输出，null 关闭trace，默认 {@link #SYSTRACE}
+     */
+    public static void setTracer(@Nullable ITracer tracer) {
+        sTracer = tracer;
+    }
+
+    public static boolean isEnabled() {
+        return sLogger != null;
+    }
+
+    static void v(String tag, String msg) {
+        log(Log.VERBOSE, tag, msg);
+    }
+
+    static void d(String tag, String msg) {
+        log(Log.DEBUG, tag, msg);
+    }
+
+    static void i(String tag, String msg) {
+        log(Log.INFO, tag, msg);
+    }
+
+    static void w(String tag, String msg) {
+        log(Log.WARN, tag, msg);
+    }
+
+    static void e(String tag, String msg) {
+        log(Log.ERROR, tag, msg);
+    }
+
+    private static void log(int priority, String tag, String msg) {
+        ILogger logger = sLogger;
+        if (logger != null) {
+            logger.log(priority, tag, msg);
+        }
+    }
+
+    static void beginSection(String name) {
+        ITracer tracer = sTracer;
+        if (tracer != null) {
+            tracer.beginSection(name);
+        }
+    }
+
+    static void endSection() {
+        ITracer tracer = sTracer;
+        if (tracer != null) {
+            tracer.endSection();
+        }
+    }
+
+    /////////////////////////////////////////////////////////
+    public interface ILogger {
+        /**
+         * @param priority {@link Log#VERBOSE} ~ {@link Log#ERROR}
+         * @param tag      标签
+         * @param msg      内容
+         */
+        void log(int priority, String tag, String msg);
+    }
+
+    public interface ITracer {
+        void beginSection(String name);
+
+        void endSection();
+    }
+}
@@ -0,0 +1,291 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.util.Arrays;
+
+/**
+ * 绘制与交互的性能统计
+ * <p>
+ * 通过 {@link WaveSelector#setMetricsEnabled(boolean)} 开启，关闭时控件不做任何统计。
+ * 只在主线程记录和读取，非线程安全。
+ */
+public final class WaveMetrics {
+
+    // 每帧绘制耗时，纳秒
+    private final Histogram mDrawNanos = new Histogram();
+    // 每帧绘制的波形个数
+    private final Histogram mBarsPerFrame = new Histogram();
+    // 每次fling中 computeScroll 的滚动帧数
+    private final Histogram mScrollFramesPerFling = new Histogram();
+    // 每次手势触发的回调次数
+    private final Histogram mChangingPerGesture = new Histogram();
+    private final Histogram mSelectPerGesture = new Histogram();
+
+    private long mFrameCount;
+    private long mBarCount;
+    private long mScrollFrameCount;
+    private long mFlingCount;
+    private long mGestureCount;
+    private long mChangingCount;
+    private long mSelectCount;
+    // fling 和 seek 停止时落点是否已提前准备好
+    private long mPrefetchHitCount;
+    private long mPrefetchMissCount;
+
+    // 当前fling和手势的计数
+    private int mCurrentScrollFrames;
+    private int mCurrentChanging;
+    private int mCurrentSelect;
+    private boolean mInGesture;
+
+    WaveMetrics() {
+    }
+
+    /////////////////////////////////////////////////////////
+
+    void onDraw(long nanos, int bars) {
+        mFrameCount++;
+        mBarCount += bars;
+        mDrawNanos.record(nanos);
+        mBarsPerFrame.record(bars);
+    }
+
+    void onFling() {
+        mFlingCount++;
+        mCurrentScrollFrames = 0;
+    }
+
+    void onScrollFrame() {
+        mScrollFrameCount++;
+        mCurrentScrollFrames++;
+    }
+
+    void onScrollEnd() {
+        if (mCurrentScrollFrames > 0) {
+            mScrollFramesPerFling.record(mCurrentScrollFrames);
+            mCurrentScrollFrames = 0;
+        }
+    }
+
+    /**
+     * 手指按下时调用，上一次手势（包括其后的fling）的回调次数在此时计入直方图
+     */
+    void onGestureStart() {
+        finishGesture();
+        mGestureCount++;
+        mInGesture = true;
+    }
+
+    void onChanging() {
+        mChangingCount++;
+        mCurrentChanging++;
+    }
+
+    void onSelect() {
+        mSelectCount++;
+        mCurrentSelect++;
+    }
+
+    /**
+     * fling 或 seek 停止时调用
+     *
+     * @param hit 落点的数据和分块是否都已就绪
+     */
+    void onPrefetchResult(boolean hit) {
+        if (hit) {
+            mPrefetchHitCount++;
+        } else {
+            mPrefetchMissCount++;
+        }
+    }
+
+    private void finishGesture() {
+        if (mInGesture) {
+            mChangingPerGesture.record(mCurrentChanging);
+            mSelectPerGesture.record(mCurrentSelect);
+        }
+        mCurrentChanging = 0;
+        mCurrentSelect = 0;
+        mInGesture = false;
+    }
+
+    /////////////////////////////////////////////////////////
+
+    /**
+     * 清空所有统计
+     */
+    public void reset() {
+        mDrawNanos.reset();
+        mBarsPerFrame.reset();
+        mScrollFramesPerFling.reset();
+        mChangingPerGesture.reset();
+        mSelectPerGesture.reset();
+        mFrameCount = 0;
+        mBarCount = 0;
+        mScrollFrameCount = 0;
+        mFlingCount = 0;
+        mGestureCount = 0;
+        mChangingCount = 0;
+        mSelectCount = 0;
+        mPrefetchHitCount = 0;
+        mPrefetchMissCount = 0;
+        mCurrentScrollFrames = 0;
+        mCurrentChanging = 0;
+        mCurrentSelect = 0;
+        mInGesture = false;
+    }
+
+    public long getFrameCount() {
+        return mFrameCount;
+    }
+
+    public long getBarCount() {
+        return mBarCount;
+    }
+
+    public long getScrollFrameCount() {
+        return mScrollFrameCount;
+    }
+
+    public long getFlingCount() {
+        return mFlingCount;
+    }
+
+    public long getGestureCount() {
+        return mGestureCount;
+    }
+
+    public long getChangingCount() {
+        return mChangingCount;
+    }
+
+    public long getSelectCount() {
+        return mSelectCount;
+    }
+
+    /**
+     * @return 停止时落点已就绪的 fling 和 seek 次数，第一帧不需要加载数据或渲染分块
+     */
+    public long getPrefetchHitCount() {
+        return mPrefetchHitCount;
+    }
+
+    /**
+     * @return 停止时落点还没就绪的 fling 和 seek 次数，偏多时可以调大 {@link WaveSelector#setPrefetchMargin(int)}
+     */
+    public long getPrefetchMissCount() {
+        return mPrefetchMissCount;
+    }
+
+    public Histogram getDrawNanos() {
+        return mDrawNanos;
+    }
+
+    public Histogram getBarsPerFrame() {
+        return mBarsPerFrame;
+    }
+
+    public Histogram getScrollFramesPerFling() {
+        return mScrollFramesPerFling;
+    }
+
+    public Histogram getChangingPerGesture() {
+        return mChangingPerGesture;
+    }
+
+    public Histogram getSelectPerGesture() {
+        return mSelectPerGesture;
+    }
+
+    @Override
+    public String toString() {
+        return "WaveMetrics{frames=" + mFrameCount + ", bars=" + mBarCount
+                + ", drawNanos=" + mDrawNanos + ", barsPerFrame=" + mBarsPerFrame
+                + ", scrollFrames=" + mScrollFrameCount + ", flings=" + mFlingCount
+                + ", scrollFramesPerFling=" + mScrollFramesPerFling
+                + ", gestures=" + mGestureCount + ", changing=" + mChangingCount + ", select=" + mSelectCount
+                + ", changingPerGesture=" + mChangingPerGesture + ", selectPerGesture=" + mSelectPerGesture
+                + ", prefetchHit=" + mPrefetchHitCount + ", prefetchMiss=" + mPrefetchMissCount + "}";
+    }
+
+    /////////////////////////////////////////////////////////
+
+    /**
+     * 以2为底的对数分桶直方图，记录时无内存分配
+     * <p>
+     * 第 0 个桶为 0，第 i 个桶为 [2^(i-1), 2^i)，百分位取所在桶的上界。
+     */
+    public static final class Histogram {
+        static final int BUCKET_COUNT = 64;
+
+        private final long[] mBuckets = new long[BUCKET_COUNT];
+        private long mCount;
+        private long mSum;
+        private long mMax;
+
+        Histogram() {
+        }
+
+        void record(long value) {
+            if (value < 0) value = 0;
+            mBuckets[bucketOf(value)]++;
+            mCount++;
+            mSum += value;
+            if (value > mMax) mMax = value;
+        }
+
+        void reset() {
+            Arrays.fill(mBuckets, 0);
+            mCount = 0;
+            mSum = 0;
+            mMax = 0;
+        }
+
+        static int bucketOf(long value) {
+            return 64 - Long.numberOfLeadingZeros(value);
+        }
+
+        public long getCount() {
+            return mCount;
+        }
+
+        public long getMax() {
+            return mMax;
+        }
+
+        public double getMean() {
+            return mCount == 0 ? 0 : (double) mSum / mCount;
+        }
+
+        /**
+         * @param bucket 桶下标
+         * @return 该桶的记录数
+         */
+        public long getBucketCount(int bucket) {
+            return mBuckets[bucket];
+        }
+
+        /**
+         * @param percentile 0 ~ 1
+         * @return 百分位所在桶的上界，不超过最大值
+         */
+        public long getPercentile(double percentile) {
+            if (mCount == 0) return 0;
+            long target = Math.max(1, (long) Math.ceil(percentile * mCount));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += mBuckets[i];
+                if (seen >= target) {
+                    long upper = i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+                    return Math.min(upper, mMax);
+                }
+            }
+            return mMax;
+        }
+
+        @Override
+        public String toString() {
+            return "{count=" + mCount + ", mean=" + Math.round(getMean())
+                    + ", p50=" + getPercentile(0.5) + ", p99=" + getPercentile(0.99) + ", max=" + mMax + "}";
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.util.Arrays;
+
+/**
+ * 多分辨率波形金字塔
+ * <p>
+ * 第 k 层的每个点为原始数据中连续 2^k 个点的最大值，第 0 层即原始数据。
+ * 波形按音量包络绘制，只保留最大值，缩放后的波形高度与原始数据中最响的点一致。
+ * 缩放时直接按层读取，不需要重新聚合；追加数据时只更新尾部。
+ */
+final class WavePyramid {
+    // 最多聚合 2^20 个点
+    static final int MAX_LEVEL = 20;
+
+    private final short[][] mMax = new short[MAX_LEVEL + 1][];
+    private final int[] mSize = new int[MAX_LEVEL + 1];
+    private final LevelData[] mLevels = new LevelData[MAX_LEVEL + 1];
+
+    private IWaveData mBase;
+    // 已构建的层数，不含第0层
+    private int mLevelCount;
+
+    WavePyramid() {
+        for (int level = 1; level <= MAX_LEVEL; level++) {
+            mLevels[level] = new LevelData(level);
+        }
+    }
+
+    /**
+     * 原始数据被整体替换后调用，下次 {@link #update(IWaveData)} 时全量构建
+     */
+    void reset() {
+        Arrays.fill(mSize, 0);
+        mLevelCount = 0;
+    }
+
+    /**
+     * 原始数据换成了新的对象，但只是在尾部追加了数据时调用，保留已构建的层级
+     *
+     * @param base 新的原始数据
+     */
+    void rebase(IWaveData base) {
+        mBase = base;
+    }
+
+    /**
+     * 按原始数据增量更新，数据量没有变化时为O(1)
+     *
+     * @param base 原始数据
+     */
+    void update(IWaveData base) {
+        int baseSize = base.size();
+        if (base != mBase || baseSize < mSize[0]) {
+            reset();
+            mBase = base;
+        }
+        if (baseSize == mSize[0]) return;
+
+        int from = Math.max(0, mSize[0] - 1);
+        mSize[0] = baseSize;
+        int level = 1;
+        int childSize = baseSize;
+        while (level <= MAX_LEVEL && childSize > 1) {
+            int size = (childSize + 1) / 2;
+            ensureCapacity(level, size);
+            // 上一次构建的最后一个点可能只聚合了部分数据，从它开始重新计算
+            from = Math.max(0, Math.min(from / 2, mSize[level] - 1));
+            for (int i = from; i < size; i++) {
+                aggregate(level, i, childSize);
+            }
+            mSize[level] = size;
+            childSize = size;
+            level++;
+        }
+        mLevelCount = level - 1;
+    }
+
+    /**
+     * @return 已构建的最大层级
+     */
+    int getLevelCount() {
+        return mLevelCount;
+    }
+
+    /**
+     * @param level 层级，0为原始数据
+     * @return 该层的数据，音量取最大值
+     */
+    IWaveData getLevel(int level) {
+        return level == 0 ? mBase : mLevels[level];
+    }
+
+    int getMax(int level, int index) {
+        return level == 0 ? mBase.getVolume(index) : mMax[level][index] & ShortWaveData.MAX_VOLUME;
+    }
+
+    private void aggregate(int level, int index, int childSize) {
+        int child = index * 2;
+        int max = getMax(level - 1, child);
+        if (child + 1 < childSize) {
+            max = Math.max(max, getMax(level - 1, child + 1));
+        }
+        mMax[level][index] = (short) max;
+    }
+
+    private void ensureCapacity(int level, int size) {
+        if (mMax[level] == null || mMax[level].length < size) {
+            int capacity = mMax[level] == null ? size : Math.max(size, mMax[level].length + (mMax[level].length >> 1));
+            mMax[level] = mMax[level] == null ? new short[capacity] : Arrays.copyOf(mMax[level], capacity);
+        }
+    }
+
+    /////////////////////////////////////////////////////////
+    private final class LevelData implements IWaveData {
+        private final int mLevel;
+
+        LevelData(int level) {
+            mLevel = level;
+        }
+
+        @Override
+        public int size() {
+            return mSize[mLevel];
+        }
+
+        @Override
+        public int getVolume(int index) {
+            return mMax[mLevel][index] & ShortWaveData.MAX_VOLUME;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.graphics.Shader;
+
+import com.tencent.intoo.component.widget.waveselector.WaveSelector.Volume;
+
+/**
+ * 波形绘制
+ * <p>
+ * 直接按可见区间 [from, to) 读取波形数据绘制，稳定状态下每帧不产生任何对象分配。
+ */
+final class WaveRenderer {
+    // drawBars 的绘制方式
+    private static final int BARS_ALL = 0;
+    private static final int BARS_HIGH_LIGHT_ONLY = 1;
+    private static final int BARS_BATCH = 2;
+
+    private final RectF mRectVolume = new RectF();
+    private final Paint mWavePaint;
+    private final Paint mWavePlayingPaint;
+    // 分块位图只记录透明度，绘制时由 mWavePaint 着色
+    private final Paint mTileMaskPaint = new Paint();
+    private final WaveTileCache mTileCache = new WaveTileCache();
+    private int mRenderMode = WaveSelector.RENDER_MODE_DIRECT;
+
+    // 合批绘制：未播放和已播放的波形各合成一个Path，已播放部分用渐变shader着色
+    private final Path mWavePath = new Path();
+    private final Path mPlayingPath = new Path();
+    private final Paint mBatchPlayingPaint = new Paint();
+    private float mShaderStartPos;
+    private float mShaderEndPos;
+    private boolean mShaderValid;
+
+    // 波形宽度、间隔及满屏波形个数
+    private float mWaveSize;
+    private float mWaveSpace;
+    private int mWavePageCount;
+    private float mWaveCorner;
+
+    private int mFullWidth;
+    private int mFullHeight;
+    private int mWavePaddingTop;
+    private int mWavePaddingBottom;
+    // 左右空闲的间距
+    private int mPaddingPix;
+
+    // 波形播放段渐变色
+    private int[] mPlayingColors;
+    private final GradientLut mPlayingLut = new GradientLut();
+
+    // 当前可见区间 [mVisibleFrom, mVisibleTo)
+    private int mVisibleFrom;
+    private int mVisibleTo;
+    // 上一帧绘制的波形个数及其中高亮的个数
+    private int mDrawnBarCount;
+    private int mDrawnHighLightCount;
+
+    WaveRenderer(Paint wavePaint, Paint wavePlayingPaint) {
+        mWavePaint = wavePaint;
+        mWavePlayingPaint = wavePlayingPaint;
+    }
+
+    void setGeometry(int fullWidth, int fullHeight, int paddingPix, int wavePageCount, float waveSize, float waveSpace) {
+        mFullWidth = fullWidth;
+        mFullHeight = fullHeight;
+        mPaddingPix = paddingPix;
+        mWavePageCount = wavePageCount;
+        mWaveSize = waveSize;
+        mWaveSpace = waveSpace;
+        updateTileSize();
+    }
+
+    void setWaveStyle(float corner, int paddingTop, int paddingBottom) {
+        mWaveCorner = corner;
+        mWavePaddingTop = paddingTop;
+        mWavePaddingBottom = paddingBottom;
+        mTileCache.clear();
+    }
+
+    void setRenderMode(int renderMode) {
+        mRenderMode = renderMode;
+        updateTileSize();
+    }
+
+    int getRenderMode() {
+        return mRenderMode;
+    }
+
+    void setTileCacheSize(int maxBytes) {
+        mTileCache.setMaxBytes(maxBytes);
+        updateTileSize();
+    }
+
+    int getTileSlotCount() {
+        return mTileCache.getSlotCount();
+    }
+
+    /**
+     * 波形数据整体变化后调用，丢弃所有分块
+     */
+    void invalidateTiles() {
+        mTileCache.clear();
+    }
+
+    /**
+     * 追加数据后调用，丢弃包含 fromIndex 及之后波形的分块
+     */
+    void invalidateTiles(int fromIndex) {
+        mTileCache.clearFrom(fromIndex);
+    }
+
+    /**
+     * 只在分块模式且布局完成后分配分块，其他模式释放分块
+     */
+    private void updateTileSize() {
+        if (mRenderMode != WaveSelector.RENDER_MODE_TILE) {
+            mTileCache.setTileSize(0, 0, 0);
+            return;
+        }
+        mTileCache.setTileSize((int) Math.ceil(WaveTileCache.TILE_BARS * getWaveUnit()), mFullHeight, mFullWidth);
+    }
+
+    /**
+     * @param colors 渐变色，至少一个，多个时均匀分布
+     */
+    void setPlayingColors(int[] colors) {
+        // 一个颜色时按两个相同颜色处理
+        mPlayingColors = colors.length == 1 ? new int[]{colors[0], colors[0]} : colors.clone();
+        mPlayingLut.set(mPlayingColors);
+        mShaderValid = false;
+    }
+
+    /**
+     * @return 一个波形单元的宽度，包括一个间隔 + 一个波形
+     */
+    float getWaveUnit() {
+        return mWaveSize + mWaveSpace;
+    }
+
+    /**
+     * @param count 波形个数
+     * @return 最后一页的开始数据index
+     */
+    int getLastPageIndex(int count) {
+        int pageSize = mWavePageCount + 1;
+        return Math.max(0, (int) (count - pageSize + (mPaddingPix / getWaveUnit())));
+    }
+
+    int getVisibleFrom() {
+        return mVisibleFrom;
+    }
+
+    int getVisibleTo() {
+        return mVisibleTo;
+    }
+
+    int getDrawnBarCount() {
+        return mDrawnBarCount;
+    }
+
+    int getDrawnHighLightCount() {
+        return mDrawnHighLightCount;
+    }
+
+    /**
+     * 计算当前滚动位置对应的可见区间
+     *
+     * @param count       波形个数
+     * @param currentLeft 当前滚动位置
+     */
+    void updateVisibleWindow(int count, double currentLeft) {
+        mVisibleTo = getWindowTo(count, currentLeft);
+        mVisibleFrom = getWindowFrom(count, currentLeft);
+    }
+
+    /**
+     * @return 任意滚动位置对应的可见区间起始下标，不改变当前可见区间
+     */
+    int getWindowFrom(int count, double currentLeft) {
+        return Math.min(getWindowIndex(count, currentLeft), getWindowTo(count, currentLeft));
+    }
+
+    /**
+     * @return 任意滚动位置对应的可见区间结束下标，不改变当前可见区间
+     */
+    int getWindowTo(int count, double currentLeft) {
+        // 当前页的数量
+        int pageMax = Math.min(count, mWavePageCount + 1);
+        return Math.min(getWindowIndex(count, currentLeft) + pageMax, Math.max(count - 1, 0));
+    }
+
+    private int getWindowIndex(int count, double currentLeft) {
+        int index = (int) ((currentLeft - mPaddingPix) / getWaveUnit());
+        int lastPageIndex = getLastPageIndex(count);
+
+        if (index < 0) index = 0;
+        if (index > lastPageIndex) index = lastPageIndex;
+        return index;
+    }
+
+    /**
+     * 提前渲染区间内缺少的分块，并固定在缓存中直到 {@link #unpinTiles()}，非分块模式时不渲染
+     * <p>
+     * 数据变化等原因被丢弃的块会在下次调用时重新渲染，每帧都可以调用。
+     *
+     * @param from     起始下标，与 {@link #getWindowFrom(int, double)} 一致
+     * @param to       结束下标，与 {@link #getWindowTo(int, double)} 一致
+     * @param maxTiles 最多渲染的块数，用于把渲染分摊到多帧，0 时只统计
+     * @return 区间内仍缺少的块数
+     */
+    int prepareTiles(IWaveData data, int from, int to, int maxTiles) {
+        if (mRenderMode != WaveSelector.RENDER_MODE_TILE || mTileCache.getTileWidth() <= 0 || to <= from) return 0;
+
+        int budget = maxTiles;
+        int missing = 0;
+        int fromTile = from / WaveTileCache.TILE_BARS;
+        int toTile = (to - 1) / WaveTileCache.TILE_BARS;
+        mTileCache.pin(fromTile, toTile);
+        for (int tile = fromTile; tile <= toTile; tile++) {
+            if (mTileCache.hasTile(tile)) continue;
+            if (budget > 0) {
+                mTileCache.getTile(tile, data, Math.max(data.size() - 1, 0), this);
+                budget--;
+            } else {
+                missing++;
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * 解除 {@link #prepareTiles(IWaveData, int, int, int)} 对分块的固定，之后按LRU淘汰
+     */
+    void unpinTiles() {
+        mTileCache.unpin();
+    }
+
+    /**
+     * 绘制可见区间内的波形，需先调用 {@link #updateVisibleWindow(int, double)}
+     */
+    void drawWave(Canvas canvas, IWaveData data, double currentLeft,
+                  float highLightStartPos, float highLightProgressPos, float highLightEndPos) {
+        if (mRenderMode == WaveSelector.RENDER_MODE_TILE && mTileCache.getTileWidth() > 0) {
+            drawTiles(canvas, data, currentLeft);
+            drawBars(canvas, data, currentLeft, highLightStartPos, highLightProgressPos, highLightEndPos, BARS_HIGH_LIGHT_ONLY);
+        } else if (mRenderMode == WaveSelector.RENDER_MODE_BATCH) {
+            drawBatch(canvas, data, currentLeft, highLightStartPos, highLightProgressPos, highLightEndPos);
+        } else {
+            drawBars(canvas, data, currentLeft, highLightStartPos, highLightProgressPos, highLightEndPos, BARS_ALL);
+        }
+    }
+
+    /**
+     * 合批绘制，每帧最多两次 drawPath
+     * <p>
+     * 已播放的波形用一个横向渐变着色，颜色在每个波形内部也连续变化（sRGB 插值），
+     * 与逐个绘制时按波形位置从颜色表取一个颜色只是近似一致
+     */
+    private void drawBatch(Canvas canvas, IWaveData data, double currentLeft,
+                           float highLightStartPos, float highLightProgressPos, float highLightEndPos) {
+        mWavePath.rewind();
+        mPlayingPath.rewind();
+        drawBars(canvas, data, currentLeft, highLightStartPos, highLightProgressPos, highLightEndPos, BARS_BATCH);
+
+        if (mDrawnBarCount > mDrawnHighLightCount) {
+            canvas.drawPath(mWavePath, mWavePaint);
+        }
+        if (mDrawnHighLightCount > 0) {
+            updatePlayingShader(highLightStartPos, highLightEndPos);
+            canvas.drawPath(mPlayingPath, mBatchPlayingPaint);
+        }
+    }
+
+    /**
+     * 高亮区间或颜色变化时才重建渐变shader，重建时会分配新的 LinearGradient
+     */
+    private void updatePlayingShader(float startPos, float endPos) {
+        if (mShaderValid && startPos == mShaderStartPos && endPos == mShaderEndPos) return;
+        mShaderStartPos = startPos;
+        mShaderEndPos = endPos;
+        mShaderValid = true;
+        mBatchPlayingPaint.setShader(new LinearGradient(startPos, 0, endPos, 0,
+                mPlayingColors, null, Shader.TileMode.CLAMP));
+    }
+
+    /**
+     * 绘制可见区间内的波形
+     *
+     * @param barsMode {@link #BARS_ALL} 逐个绘制；{@link #BARS_HIGH_LIGHT_ONLY} 只绘制高亮的波形，用于叠加在分块位图之上；
+     *                 {@link #BARS_BATCH} 不绘制，只加入Path
+     */
+    private void drawBars(Canvas canvas, IWaveData data, double currentLeft,
+                         float highLightStartPos, float highLightProgressPos, float highLightEndPos,
+                         int barsMode) {
+        final float unit = getWaveUnit();
+        // 长音频滚动位置很大，先用 double 取余再转成屏幕坐标
+        final int offSet = (int) ((currentLeft - mPaddingPix) % unit);
+        final float waveHeight = mFullHeight - mWavePaddingTop - mWavePaddingBottom;
+        final float corner = mWaveCorner;
+        int barCount = 0;
+        int highLightCount = 0;
+
+        for (int i = mVisibleFrom; i < mVisibleTo; i++) {
+            float left = (i - mVisibleFrom) * unit;
+            if (currentLeft <= mPaddingPix) {
+                left += (float) (mPaddingPix - currentLeft);
+            } else {
+                left -= offSet;
+            }
+
+            if (left > mFullWidth) break;
+
+            float right = left + mWaveSpace;
+            float height = Volume.toPercent(data.getVolume(i)) * waveHeight;
+            float top = mFullHeight / 2 - height / 2;
+            float bottom = mFullHeight / 2 + height / 2;
+
+            if (left < 0) {
+                left = 0;
+            }
+            mRectVolume.set(left, top, right, bottom);
+            barCount++;
+            if (left >= highLightStartPos - mWaveSize && right <= highLightProgressPos + mWaveSize) {
+                highLightCount++;
+                if (barsMode == BARS_BATCH) {
+                    mPlayingPath.addRoundRect(mRectVolume, corner, corner, Path.Direction.CW);
+                } else {
+                    // 当前波形条渐变色
+                    mWavePlayingPaint.setColor(mPlayingLut.getColor((left - highLightStartPos) / (highLightEndPos - highLightStartPos)));
+                    canvas.drawRoundRect(mRectVolume, corner, corner, mWavePlayingPaint);
+                }
+            } else if (barsMode == BARS_BATCH) {
+                mWavePath.addRoundRect(mRectVolume, corner, corner, Path.Direction.CW);
+            } else if (barsMode == BARS_ALL) {
+                canvas.drawRoundRect(mRectVolume, corner, corner, mWavePaint);
+            }
+        }
+        mDrawnBarCount = barCount;
+        mDrawnHighLightCount = highLightCount;
+    }
+
+    /**
+     * 按当前位置贴出可见的分块位图
+     */
+    private void drawTiles(Canvas canvas, IWaveData data, double currentLeft) {
+        if (mVisibleTo <= mVisibleFrom) return;
+
+        mTileCache.nextFrame();
+        float tileStep = WaveTileCache.TILE_BARS * getWaveUnit();
+        double origin = getWaveOrigin(currentLeft);
+        int fromTile = mVisibleFrom / WaveTileCache.TILE_BARS;
+        int toTile = (mVisibleTo - 1) / WaveTileCache.TILE_BARS;
+        for (int tile = fromTile; tile <= toTile; tile++) {
+            float left = (float) (origin + tile * (double) tileStep);
+            if (left > mFullWidth) break;
+            // 与逐个绘制一致，最后一个波形不绘制
+            Bitmap bitmap = mTileCache.getTile(tile, data, Math.max(data.size() - 1, 0), this);
+            canvas.drawBitmap(bitmap, left, 0, mWavePaint);
+        }
+    }
+
+    /**
+     * 渲染一块位图，波形 from 绘制在位图的最左边
+     */
+    void renderTile(Canvas tileCanvas, IWaveData data, int from, int to) {
+        final float unit = getWaveUnit();
+        final float waveHeight = mFullHeight - mWavePaddingTop - mWavePaddingBottom;
+        for (int i = from; i < to; i++) {
+            float left = (i - from) * unit;
+            float height = Volume.toPercent(data.getVolume(i)) * waveHeight;
+            mRectVolume.set(left, mFullHeight / 2 - height / 2, left + mWaveSpace, mFullHeight / 2 + height / 2);
+            tileCanvas.drawRoundRect(mRectVolume, mWaveCorner, mWaveCorner, mTileMaskPaint);
+        }
+    }
+
+    /**
+     * 屏幕坐标 x 所在的波形下标，与 {@link #drawBars} 的布局一致，需先调用 {@link #updateVisibleWindow(int, double)}
+     * <p>
+     * 高亮进度跨过波形左边界时该波形才变色，下标不变时不需要重绘
+     */
+    int getBarIndexAt(float x, double currentLeft) {
+        return (int) Math.floor((x - getWaveOrigin(currentLeft)) / getWaveUnit());
+    }
+
+    /**
+     * 高亮进度从 oldPos 移动到 newPos 时是否有可见的波形变色，需先调用 {@link #updateVisibleWindow(int, double)}
+     * <p>
+     * 进度先限制在屏幕内，屏幕外的波形变色不需要重绘
+     */
+    boolean isHighLightBarChanged(float oldPos, float newPos, double currentLeft) {
+        oldPos = Math.max(0, Math.min(mFullWidth, oldPos));
+        newPos = Math.max(0, Math.min(mFullWidth, newPos));
+        return getBarIndexAt(oldPos, currentLeft) != getBarIndexAt(newPos, currentLeft);
+    }
+
+    /**
+     * @return 第0个波形在屏幕上的左边界，与 {@link #drawBars} 的布局一致
+     */
+    private double getWaveOrigin(double currentLeft) {
+        if (currentLeft <= mPaddingPix) {
+            return mPaddingPix - currentLeft;
+        }
+        double unit = getWaveUnit();
+        return -(mVisibleFrom * unit + (int) ((currentLeft - mPaddingPix) % unit));
+    }
+}
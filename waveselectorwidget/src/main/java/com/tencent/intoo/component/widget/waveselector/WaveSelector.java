@@ -1,27 +1,28 @@
 package com.tencent.intoo.component.widget.waveselector;
 
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import android.animation.ArgbEvaluator;
+import android.animation.TimeInterpolator;
 import android.content.Context;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Paint;
-import android.graphics.RectF;
-import android.os.SystemClock;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.Nullable;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewTreeObserver;
+import android.view.animation.AnimationUtils;
 import android.widget.Scroller;
 
 /**
@@ -39,18 +40,25 @@ import android.widget.Scroller;
 public class WaveSelector extends View {
     public static final String TAG = "WaveSelector";
 
+    // 逐个绘制波形
+    public static final int RENDER_MODE_DIRECT = 0;
+    // 波形预先渲染成分块位图缓存，滚动时只贴图
+    public static final int RENDER_MODE_TILE = 1;
+    // 所有波形合成一个Path绘制，已播放部分用渐变shader着色
+    // 渐变按像素连续变化，逐个绘制时每个波形是单一颜色，两者只是近似一致
+    public static final int RENDER_MODE_BATCH = 2;
+
     // TODO 滑动轨道的灵敏度
     private static final int SCROLL_SENSITIVITY = 1;
 
-    private static final ConcurrentLinkedQueue<Volume> EMPTY_QUEUE = new ConcurrentLinkedQueue<>();
-
     // 播放Android机型会有选择时间+1、-1来回抖动的现象，尝试优化一下这里
     private boolean mSmoothScrollEnable = true;
 
-    private final ArgbEvaluator mArgbEvaluator;
     // 波形播放段起止颜色
     private final int mPlayingStartColor;
     private final int mPlayingEndColor;
+    // 波形播放段多段渐变色，设置后代替起止颜色
+    private int[] mPlayingColors;
 
     // 选择线颜色
     private final int mSelectLineColor;
@@ -58,7 +66,39 @@ public class WaveSelector extends View {
     private final int mSelectLineOnLimitColor;
 
     // 缓存波形数据
-    private ArrayList<Volume> mData = new ArrayList<>();
+    private final ShortWaveData mData = new ShortWaveData();
+    // 后台线程发布的数据，设置后代替 mData
+    private WaveDataPublisher mPublisher;
+    // 主线程当前使用的快照，只在主线程读写，一帧内不会变化
+    private WaveSnapshot mSnapshot = WaveSnapshot.EMPTY;
+    private final AtomicBoolean mSnapshotPending = new AtomicBoolean();
+    // 其他线程交回主线程的任务，控件未 attach 时 View#post 在 API 24 以下会丢失
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    // 按需加载的数据源，设置后代替 mData 和 mPublisher
+    private IWaveDataSource mDataSource;
+    // 可见区间两侧预取的波形个数，默认一屏
+    private int mPrefetchMargin = -1;
+    // fling 或 seek 落点的可见区间，在滚动过程中提前准备
+    private boolean mLandingPending;
+    private int mLandingFrom;
+    private int mLandingTo;
+    // 缩放用的多分辨率数据
+    private final WavePyramid mPyramid = new WavePyramid();
+    // 数据源的多分辨率数据在后台构建
+    private final SourcePyramidLoader mSourcePyramid = new SourcePyramidLoader(AsyncTask.THREAD_POOL_EXECUTOR, new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            mMainHandler.post(command);
+        }
+    }, new SourcePyramidLoader.ICallback() {
+        @Override
+        public void onPyramidReady() {
+            mRenderer.invalidateTiles();
+            invalidate();
+        }
+    });
+    // 缩放层级，每个波形聚合 2^mZoomLevel 个波形点
+    private int mZoomLevel;
     private int mPlayDuration;
     private int mLastDuration = -1;
 
@@ -84,60 +124,61 @@ public class WaveSelector extends View {
     private int mWavePaddingBottom = (int) (30 * density);
     private int mFullWidth;
     private int mFullHeight;
-    private float mPIX_PER_SECOND;
+    private double mPIX_PER_SECOND;
 
     /////////////////////////////////////////////////////////
     private VelocityTracker mVelocityTracker;
     private final Scroller mScroll;
-    private long mLastPageStart = -1;//相对pos
-    private long mLastScrollingPageStart = -1;//相对pos
-    private IWaveSelectorListener mListener = new IWaveSelectorListener() {
+    private double mLastPageStart = -1;//相对pos
+    private double mLastScrollingPageStart = -1;//相对pos
+    // 没有设置监听时输出日志
+    private final IWaveSelectorListener mLogListener = new IWaveSelectorListener() {
         @Override
         public void onChanging(long timeStart) {
-            Log.d(TAG, "onChanging() called with: timeStart = [" + timeStart + "]");
+            if (WaveLog.isEnabled()) WaveLog.d(TAG, "onChanging() called with: timeStart = [" + timeStart + "]");
         }
 
         @Override
         public void onSelect(long timeStart) {
-            Log.d(TAG, "onSelect() called with: timeStart = [" + timeStart + "]");
+            if (WaveLog.isEnabled()) WaveLog.d(TAG, "onSelect() called with: timeStart = [" + timeStart + "]");
         }
 
         @Override
         public void onReady() {
-            Log.d(TAG, "onReady() called");
+            WaveLog.d(TAG, "onReady() called");
         }
 
         @Override
         public void onLimit() {
-            Log.d(TAG, "onLimit() called");
+            WaveLog.d(TAG, "onLimit() called");
         }
     };
 
     /////////////////////////////////////////////////////////
-    private float mMaxScrollX;
-    private int mCurrentLeft;
-    private long mLastScrollEndTS;
-    private int mLastCurrX;
-    private boolean mIgnoreCallBack;
+    // 逐帧推进 fling 和 seek 动画，停止时回调一次onSelect
+    private final ScrollController mScrollController;
     // 左右空闲的间距，方便以中点方式选中第0秒和最后一秒
     private int mPaddingPix;
 
-    private SizeConvertAdapter mConvertAdapter;
+    // 滚动位置和像素时间换算，布局前没有换算比例
+    private final WaveViewport mViewport = new WaveViewport();
 
     private boolean mInited;
     private boolean mIsOnPreDraw;
     private boolean mIsLimiting = false;
-    private int mAutoSeekTo;// seek后界面还没ready，先保持在，后续onReady后还原seek
+    private long mAutoSeekTo;// seek后界面还没ready，先保持在，后续onReady后还原seek
 
     // 最大滚动起始位置，防止滚出界面
-    private int mLastAvailableLeft;
+    private double mLastAvailableLeft;
 
     /////////////////////////////////////////////////////////
-    private final RectF mRectVolume = new RectF();
     private final Paint mWavePaint;
     private final Paint mWavePlayingPaint;
     private final Paint mSelectPaint;
+    private final WaveRenderer mRenderer;
 //    private final ValueAnimator mValueAnimator;
+    // 性能统计，未开启时为null
+    private WaveMetrics mMetrics;
 
     /////////////////////////////////////////////////////////
     private static final int SCROLLING_VELOCITY_UNIT = 100;
@@ -152,18 +193,87 @@ public class WaveSelector extends View {
     private float mLastDownX;
     private int mDragDirection;
 
+    // 双指缩放
+    private static final float PINCH_ZOOM_STEP = 1.6f;
+    private final ScaleGestureDetector mScaleDetector;
+    private boolean mPinchZoomEnabled = true;
+    private boolean mIsScaling;
+    private float mPinchScale = 1;
+
     /////////////////////////////////////////////////////////
     private float mHighLightEndPos;//相对位置
     private float mHighLightStartPos;
     private float mHighLightProgressPos;
     private boolean isProgressing;
-    private Timer timer;
-    private TimerTask timerTask;
-    private static final int TIMER_TRIGGER = 200;
+    // 高亮进度按帧时间插值，锚点为最近一次开始或seek的位置和时间
+    private float mHighLightAnchorPos;
+    private long mHighLightAnchorTime;
+    // 设置后高亮进度跟随播放器位置
+    private IPlaybackClock mPlaybackClock;
+    private final PlaybackInterpolator mPlaybackInterpolator = new PlaybackInterpolator();
+    private final Runnable mHighLightFrameCallback = new Runnable() {
+        @Override
+        public void run() {
+            onHighLightFrame();
+        }
+    };
+    private final IFrameClock mFrameClock = new IFrameClock() {
+        @Override
+        public long uptimeMillis() {
+            return AnimationUtils.currentAnimationTimeMillis();
+        }
+
+        @Override
+        public void postFrameCallback(Runnable callback) {
+            postOnAnimation(callback);
+        }
+
+        @Override
+        public void removeFrameCallback(Runnable callback) {
+            removeCallbacks(callback);
+        }
+    };
+    private final ListenerDispatcher mDispatcher = new ListenerDispatcher(mFrameClock);
+    private final ScrollController.ICallback mScrollCallback = new ScrollController.ICallback() {
+        @Override
+        public void onScrollFrame(int x) {
+            onFlingFrame(x);
+        }
+
+        @Override
+        public void onScrollSettled(int finalX) {
+            onFlingSettled(finalX);
+        }
+    };
+    // 数据和尺寸都就绪后回调onReady，复用时先移除未执行的回调
+    private final Runnable mReadyRunnable = new Runnable() {
+        @Override
+        public void run() {
+            // onReady 先于还原 seek 产生的 onSelect
+            mDispatcher.dispatchReady();
+
+            if (mAutoSeekTo > 0) {
+                seekTo(mAutoSeekTo, 0, null);
+            }
+        }
+    };
+    // 写入线程发布快照后，合并成一次主线程更新
+    private final WaveDataPublisher.IPublishListener mPublishListener = new WaveDataPublisher.IPublishListener() {
+        @Override
+        public void onPublish(WaveSnapshot snapshot) {
+            if (mSnapshotPending.compareAndSet(false, true)) {
+                mMainHandler.post(mApplySnapshotRunnable);
+            }
+        }
+    };
+    private final Runnable mApplySnapshotRunnable = new Runnable() {
+        @Override
+        public void run() {
+            applySnapshot();
+        }
+    };
     // 最少可选时长
     private int mDefaultLimitSelectTime = 2000;
-    // onSelect去重用
-    private long mLastCallBackScrollTime;
 
     /////////////////////////////////////////////////////////
     public WaveSelector(Context context) {
@@ -179,9 +289,58 @@ public class WaveSelector extends View {
         mHalfWaveCount = attributes.getInt(R.styleable.WaveSelector_half_wave_count, mHalfWaveCount);
         mScrollingVelocity = attributes.getInt(R.styleable.WaveSelector_scrolling_velocity, SCROLLING_VELOCITY_UNIT);
 
+        mDispatcher.setListener(mLogListener);
         init();
 
         mScroll = new Scroller(getContext());
+        mScrollController = new ScrollController(mFrameClock, mViewport, new ScrollController.IFlingScroller() {
+            @Override
+            public void abortAnimation() {
+                mScroll.abortAnimation();
+            }
+
+            @Override
+            public boolean computeScrollOffset() {
+                return mScroll.computeScrollOffset();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return mScroll.isFinished();
+            }
+
+            @Override
+            public int getCurrX() {
+                return mScroll.getCurrX();
+            }
+
+            @Override
+            public int getFinalX() {
+                return mScroll.getFinalX();
+            }
+        }, mScrollCallback);
+        mScaleDetector = new ScaleGestureDetector(context, new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScaleBegin(ScaleGestureDetector detector) {
+                if (!mPinchZoomEnabled || !mInited) return false;
+                mIsScaling = true;
+                mPinchScale = 1;
+                return true;
+            }
+
+            @Override
+            public boolean onScale(ScaleGestureDetector detector) {
+                mPinchScale *= detector.getScaleFactor();
+                if (mPinchScale >= PINCH_ZOOM_STEP) {
+                    setZoomLevel(mZoomLevel - 1);
+                    mPinchScale = 1;
+                } else if (mPinchScale <= 1 / PINCH_ZOOM_STEP) {
+                    setZoomLevel(mZoomLevel + 1);
+                    mPinchScale = 1;
+                }
+                return true;
+            }
+        });
 
         mWavePaint = new Paint();// 波形
         int waveColor = attributes.getColor(R.styleable.WaveSelector_wave_color, getResources().getColor(R.color.colorWave));
@@ -196,11 +355,20 @@ public class WaveSelector extends View {
         mSelectPaint.setColor(mSelectLineColor);
         mSelectPaint.setStrokeWidth(2 * density);
 
-        mArgbEvaluator = new ArgbEvaluator();
+        mRenderer = new WaveRenderer(mWavePaint, mWavePlayingPaint);
 
         // color.
         mPlayingStartColor = attributes.getColor(R.styleable.WaveSelector_wave_playing_color_start_color, getResources().getColor(R.color.colorWavePlayed));
         mPlayingEndColor = attributes.getColor(R.styleable.WaveSelector_wave_playing_color_end_color, getResources().getColor(R.color.colorWavePlayed));
+        int playingColorsId = attributes.getResourceId(R.styleable.WaveSelector_wave_playing_colors, 0);
+        if (playingColorsId != 0) {
+            final TypedArray colors = res.obtainTypedArray(playingColorsId);
+            mPlayingColors = new int[colors.length()];
+            for (int i = 0; i < mPlayingColors.length; i++) {
+                mPlayingColors[i] = colors.getColor(i, mPlayingStartColor);
+            }
+            colors.recycle();
+        }
 
         // padding.
         mWavePaddingTop = (int) attributes.getDimension(R.styleable.WaveSelector_wave_padding_top, mWavePaddingTop);
@@ -212,7 +380,17 @@ public class WaveSelector extends View {
         // loopOnLimit TODO
         mLoopOnLimit = attributes.getBoolean(R.styleable.WaveSelector_wave_loop_on_limit, mLoopOnLimit);
 
+        // render mode.
+        mRenderer.setRenderMode(attributes.getInt(R.styleable.WaveSelector_wave_render_mode, RENDER_MODE_DIRECT));
+        mRenderer.setTileCacheSize(attributes.getInt(R.styleable.WaveSelector_wave_tile_cache_size, WaveTileCache.DEFAULT_MAX_BYTES / 1024) * 1024);
+
         attributes.recycle();
+
+        if (mPlayingColors == null || mPlayingColors.length == 0) {
+            mPlayingColors = new int[]{mPlayingStartColor, mPlayingEndColor};
+        }
+        mRenderer.setPlayingColors(mPlayingColors);
+        mRenderer.setWaveStyle(mWaveCorner, mWavePaddingTop, mWavePaddingBottom);
     }
 
     private void init() {
@@ -224,25 +402,16 @@ public class WaveSelector extends View {
                 int testWidth = WaveSelector.this.getWidth();
                 if (testWidth <= 0) {
                     if (onPreDrawNotify) {
-                        Log.e(TAG, "onPreDraw() not initialized. return.");
+                        WaveLog.e(TAG, "onPreDraw() not initialized. return.");
                         onPreDrawNotify = false;
                     }
                     return true;
                 }
                 WaveSelector.this.getViewTreeObserver().removeOnPreDrawListener(this);
                 mIsOnPreDraw = true;
-                mFullWidth = WaveSelector.this.getWidth();
-                mFullHeight = WaveSelector.this.getHeight();
-                mPaddingPix = mFullWidth / 2;
-
-                mWaveSize = mFullWidth * 1.0f / mWavePageCount / 2;
-                mWaveSpace = mWaveSize;
-
-                mPIX_PER_SECOND = mFullWidth * 1.0f / mFullWidthTrackDuration;
-                SizeConvertAdapter.init(mPIX_PER_SECOND);
-                mConvertAdapter = SizeConvertAdapter.getInstance();
+                updateGeometry(WaveSelector.this.getWidth(), WaveSelector.this.getHeight());
 
-                Log.d(TAG, "onPreDraw() called mFullWidth:" + mFullWidth + ", mFullHeight:" + mFullHeight);
+                if (WaveLog.isEnabled()) WaveLog.d(TAG, "onPreDraw() called mFullWidth:" + mFullWidth + ", mFullHeight:" + mFullHeight);
 
                 callOnReady();
 
@@ -252,30 +421,63 @@ public class WaveSelector extends View {
 
     }
 
+    /**
+     * 按控件尺寸计算波形布局和像素时间换算，换算比例每个控件独立
+     * <p>
+     * 复用时尺寸变化，滚动位置和高亮区间按时间保持不变
+     */
+    private void updateGeometry(int width, int height) {
+        SizeConvertAdapter oldAdapter = mViewport.getAdapter();
+        int oldPaddingPix = mPaddingPix;
+
+        mFullWidth = width;
+        mFullHeight = height;
+        mPaddingPix = mFullWidth / 2;
+
+        mWaveSize = mFullWidth * 1.0f / mWavePageCount / 2;
+        mWaveSpace = mWaveSize;
+
+        mPIX_PER_SECOND = mFullWidth * 1.0 / mFullWidthTrackDuration;
+        mViewport.setAdapter(createConvertAdapter());
+
+        mRenderer.setGeometry(mFullWidth, mFullHeight, mPaddingPix, mWavePageCount, mWaveSize, mWaveSpace);
+        updateMaxScrollX();
+
+        if (oldAdapter != null) {
+            float factor = (float) (mViewport.getPixPerMs() / oldAdapter.getPixPerMs());
+            mHighLightStartPos = mPaddingPix + (mHighLightStartPos - oldPaddingPix) * factor;
+            mHighLightProgressPos = mPaddingPix + (mHighLightProgressPos - oldPaddingPix) * factor;
+            mHighLightEndPos = mPaddingPix + (mHighLightEndPos - oldPaddingPix) * factor;
+            anchorHighLight();
+
+            stopFling();
+            mViewport.clampScroll();
+            mLastAvailableLeft = mViewport.getScrollX();
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        // 首次布局在onPreDraw中处理，这里只处理之后的尺寸变化，例如列表复用
+        if (mIsOnPreDraw && w > 0 && (w != mFullWidth || h != mFullHeight)) {
+            updateGeometry(w, h);
+            invalidate();
+        }
+    }
+
     private void callOnReady() {
         if (mInited && mIsOnPreDraw) {
-            post(new Runnable() {
-                @Override
-                public void run() {
-                    if (mAutoSeekTo > 0) {
-                        seekTo(mAutoSeekTo);
-                    }
-
-                    if (mListener != null) {
-                        mListener.onReady();
-                    }
-                }
-            });
+            removeCallbacks(mReadyRunnable);
+            post(mReadyRunnable);
         }
     }
 
     private void callOnLimit() {
-        Log.v(TAG, "callOnLimit() called");
+        WaveLog.v(TAG, "callOnLimit() called");
         mIsLimiting = true;
         if (mInited && mIsOnPreDraw) {
-            if (mListener != null) {
-                mListener.onLimit();
-            }
+            mDispatcher.dispatchLimit();
         }
     }
 
@@ -283,12 +485,84 @@ public class WaveSelector extends View {
      * 清空数据和状态
      */
     public void dispose() {
-        Log.i(TAG, "dispose().");
+        WaveLog.i(TAG, "dispose().");
         clearHighLight();
         mData.clear();
+        mSnapshot = WaveSnapshot.EMPTY;
+        mPyramid.reset();
+        mRenderer.invalidateTiles();
         mInited = false;
 //        mScroll.setFinalX(0);
-        SizeConvertAdapter.dispose();
+        mViewport.setMaxScrollX(0);
+    }
+
+    /**
+     * 回收控件以便在列表中复用，保留尺寸和像素时间换算，清空数据、滚动位置、高亮和缩放
+     * <p>
+     * 之后通过 {@link #rebind(List)} 或 {@link #setData(List)} 设置新数据，不需要重新布局，回调监听保留
+     */
+    public void recycle() {
+        removeCallbacks(mReadyRunnable);
+        mDispatcher.cancel();
+        setDataPublisher(null);
+        setDataSource(null);
+        dispose();
+
+        mScroll.setFinalX(0);
+        stopFling();
+        if (mVelocityTracker != null) {
+            mVelocityTracker.recycle();
+            mVelocityTracker = null;
+        }
+        mIsDragging = false;
+        mIsScaling = false;
+        mDragDirection = Direction_UNKNOWN;
+
+        mViewport.setScrollX(0);
+        mLastAvailableLeft = 0;
+        mLastPageStart = -1;
+        mLastScrollingPageStart = -1;
+        mIsLimiting = false;
+        mAutoSeekTo = 0;
+
+        mHighLightStartPos = 0;
+        mHighLightProgressPos = 0;
+        mHighLightEndPos = 0;
+        mPlayDuration = 0;
+        mLastDuration = -1;
+        mPlaybackInterpolator.reset();
+
+        if (mZoomLevel != 0) {
+            mZoomLevel = 0;
+            if (mViewport.isReady()) {
+                mViewport.setAdapter(createConvertAdapter());
+            }
+        }
+        invalidate();
+    }
+
+    /**
+     * 复用控件绑定新数据，等同于 {@link #recycle()} 后 {@link #setData(List)}
+     *
+     * @param ll 数据
+     */
+    public void rebind(List<Integer> ll) {
+        recycle();
+        setData(ll);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (isProgressing) {
+            mFrameClock.postFrameCallback(mHighLightFrameCallback);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mFrameClock.removeFrameCallback(mHighLightFrameCallback);
+        super.onDetachedFromWindow();
     }
 
     /////////////////////////////////////////////////////////
@@ -299,13 +573,13 @@ public class WaveSelector extends View {
         if (!mInited) return;
 
         if (mWaveSize <= 0) {
-            Log.e(TAG, "skip to. mWaveWidth error." + mWaveSize);
+            if (WaveLog.isEnabled()) WaveLog.e(TAG, "skip to. mWaveWidth error." + mWaveSize);
             return;
         }
 
-        if (!isAvailed(mCurrentLeft)/*x >= mMaxScrollX || x < 0*/) {
-            Log.e(TAG, "skip to. mMaxScrollX error." + "x:" + mCurrentLeft + ", max:" + mMaxScrollX);
-            mCurrentLeft = mLastAvailableLeft;
+        if (!isAvailed(mViewport.getScrollX())/*x >= mMaxScrollX || x < 0*/) {
+            if (WaveLog.isEnabled()) WaveLog.e(TAG, "skip to. mMaxScrollX error." + "x:" + mViewport.getScrollX() + ", max:" + mViewport.getMaxScrollX());
+            mViewport.setScrollX(mLastAvailableLeft);
         }
 
         doDraw(canvas);
@@ -314,105 +588,112 @@ public class WaveSelector extends View {
     }
 
     private void doDraw(Canvas canvas) {
-        int offSet = (int) ((mCurrentLeft - mPaddingPix) % (mWaveSpace + mWaveSize));
-        mLastAvailableLeft = mCurrentLeft;
-
-        ConcurrentLinkedQueue<Volume> careData = getCurrentPageData();
-        Iterator<Volume> it = careData.iterator();
-        int index = 0;
-        while (it.hasNext()) {
-            // draw volume.
-            Volume dt = it.next();
-            float left = index * (mWaveSpace + mWaveSize);
-            if (mCurrentLeft <= mPaddingPix) {
-                left += (mPaddingPix - mCurrentLeft);
-            } else {
-                left -= offSet;
-            }
-
-            if (left > mFullWidth) break;
-
-            float right = left + mWaveSpace;
-            float height = dt.percent * (mFullHeight - mWavePaddingTop - mWavePaddingBottom);
-            float top = mFullHeight / 2 - height / 2;
-            float bottom = mFullHeight / 2 + height / 2;
-            float corner = mWaveCorner;
-
-            if (left < 0) {
-                left = 0;
-            }
-            mRectVolume.set(left, top, right, bottom);
-            if (left >= mHighLightStartPos - mWaveSize && right <= mHighLightProgressPos + mWaveSize) {
-                // 当前波形条渐变色
-                int mCurrentPlayingColor = getCurrentWaveColor((left - mHighLightStartPos) / (mHighLightEndPos - mHighLightStartPos));
-                mWavePlayingPaint.setColor(mCurrentPlayingColor);
-                canvas.drawRoundRect(mRectVolume, corner, corner, mWavePlayingPaint);
-            } else {
-                canvas.drawRoundRect(mRectVolume, corner, corner, mWavePaint);
-            }
-
-            index++;
+        WaveLog.beginSection("WaveSelector#draw");
+        long start = mMetrics != null ? System.nanoTime() : 0;
+        mLastAvailableLeft = mViewport.getScrollX();
+
+        if (mViewport.isReady()) {
+            IWaveData data = getDrawData();
+            mRenderer.updateVisibleWindow(data.size(), mViewport.getScrollX());
+            prefetchVisibleWindow();
+            mRenderer.drawWave(canvas, data, mViewport.getScrollX(), mHighLightStartPos, mHighLightProgressPos, mHighLightEndPos);
         }
 
         // draw select line.
         mSelectPaint.setColor(mIsLimiting ? mSelectLineOnLimitColor : mSelectLineColor);
         canvas.drawLine(mFullWidth / 2, 0, mFullWidth / 2, mFullHeight, mSelectPaint);
-    }
 
-    /**
-     * 通过起止色计算当前要绘制的波形色
-     *
-     * @param percent 进度百分比
-     * @return 颜色
-     */
-    private int getCurrentWaveColor(float percent) {
-//        Log.d(TAG, "getCurrentWaveColor() called with: percent = [" + percent + "]");
-        return (int) mArgbEvaluator.evaluate(percent, mPlayingStartColor, mPlayingEndColor);
+        if (mMetrics != null) {
+            mMetrics.onDraw(System.nanoTime() - start, mViewport.isReady() ? mRenderer.getDrawnBarCount() : 0);
+        }
+        WaveLog.endSection();
     }
 
     /////////////////////////////////////////////////////////
     public void startHighLight() {
         if (!mInited) return;
-        if (mPlayDuration <= 0 || mConvertAdapter == null) return;
+        if (mPlayDuration <= 0 || !mViewport.isReady()) return;
         int start = mPaddingPix;
-        int end = Math.round(start + mConvertAdapter.getPixByTime(mPlayDuration));
+        int end = (int) Math.round(start + mViewport.timeToPix(mPlayDuration));
         startHighLight(start, end);
     }
 
     public void startHighLight(float left, float end) {
-        Log.w(TAG, "startHighLight. left:" + left + ", end:" + end);
-        if (!mInited || mConvertAdapter == null) return;
+        if (WaveLog.isEnabled()) WaveLog.w(TAG, "startHighLight. left:" + left + ", end:" + end);
+        if (!mInited || !mViewport.isReady()) return;
         mHighLightEndPos = end;
         mHighLightStartPos = left;
         mHighLightProgressPos = left;
+        anchorHighLight();
         if (isProgressing) return;
 
-        Log.i(TAG, "startHighLight......");
-        timer = new Timer();
-        timerTask = new TimerTask() {
-            @Override
-            public void run() {
-                if (mHighLightProgressPos <= mHighLightEndPos) {
-                    mHighLightProgressPos += mConvertAdapter.getPixByTime(TIMER_TRIGGER);//EVALUATOR_STEP;
-                } else {
-                    // 循环播放启用
-                    //mHighLightProgressPos = mHighLightStartPos;
+        WaveLog.i(TAG, "startHighLight......");
+        isProgressing = true;
+        mFrameClock.postFrameCallback(mHighLightFrameCallback);
+    }
 
-                    // 单次播放启用
-                    stopHighLight();
-                }
+    /**
+     * 设置播放位置提供者，高亮进度每帧读取播放器位置，不再按开始时间推算
+     *
+     * @param clock 播放位置，null 时恢复按帧时间推算
+     */
+    public void setPlaybackClock(IPlaybackClock clock) {
+        mPlaybackClock = clock;
+        anchorHighLight();
+    }
 
-                postInvalidate();
-            }
-        };
+    /**
+     * 每帧推进高亮进度，进度跨过波形边界时才重绘，播放结束后不再请求下一帧
+     */
+    private void onHighLightFrame() {
+        if (!isProgressing || !mViewport.isReady()) return;
+
+        float oldPos = mHighLightProgressPos;
+        long now = mFrameClock.uptimeMillis();
+        if (mPlaybackClock != null) {
+            long position = mPlaybackInterpolator.update(mPlaybackClock.getPlaybackPosition(), now);
+            mHighLightProgressPos = mPaddingPix + (float) (mViewport.timeToPix(position) - mViewport.getScrollX());
+        } else {
+            long elapsed = now - mHighLightAnchorTime;
+            mHighLightProgressPos = mHighLightAnchorPos + (float) (mViewport.getPixPerMs() * elapsed);
+        }
+        if (mHighLightProgressPos > mHighLightEndPos) {
+            // 循环播放启用
+            //mHighLightProgressPos = mHighLightStartPos;
 
-        isProgressing = true;
-        timer.schedule(timerTask, 0, TIMER_TRIGGER);
+            // 单次播放启用
+            stopHighLight();
+            invalidate();
+            return;
+        }
+
+        mFrameClock.postFrameCallback(mHighLightFrameCallback);
+        invalidateHighLight(oldPos);
+    }
+
+    /**
+     * 高亮进度变化时只有可见的波形变色才重绘，进度在一个波形内移动的帧不重绘
+     * <p>
+     * 硬件加速（API 21+）会忽略重绘区域，整个控件都会重新记录，所以不使用已废弃的 invalidate(Rect)
+     *
+     * @param oldPos 变化前的高亮进度
+     */
+    private void invalidateHighLight(float oldPos) {
+        if (mRenderer.isHighLightBarChanged(oldPos, mHighLightProgressPos, mViewport.getScrollX())) {
+            invalidate();
+        }
+    }
+
+    private void anchorHighLight() {
+        mHighLightAnchorPos = mHighLightProgressPos;
+        mHighLightAnchorTime = mFrameClock.uptimeMillis();
+        // 重新开始或seek后播放器位置可能回退，不能沿用之前的插值
+        mPlaybackInterpolator.reset();
     }
 
     public void resumeHighLight() {
         if (!mInited) return;
-        Log.d(TAG, "resumeHighLight() called");
+        WaveLog.d(TAG, "resumeHighLight() called");
         float current = mHighLightProgressPos - mPaddingPix;
         startHighLight();
         seekHighLight(current);
@@ -421,18 +702,22 @@ public class WaveSelector extends View {
     private void seekHighLight(float seekPos) {
         if (!mInited) return;
         seekPos += mPaddingPix;
-        Log.i(TAG, "seekHighLight() ... pos:" + seekPos);
+        if (WaveLog.isEnabled()) WaveLog.i(TAG, "seekHighLight() ... pos:" + seekPos);
         if (seekPos + 50 >= mHighLightStartPos && seekPos - 50 <= mHighLightEndPos) {// 50为允许的误差值，eg left720.0, start719.992 ...
+            float oldPos = mHighLightProgressPos;
             mHighLightProgressPos = seekPos;
-            Log.v(TAG, "................" + mHighLightProgressPos);
-            postInvalidate();
+            anchorHighLight();
+            if (WaveLog.isEnabled()) WaveLog.v(TAG, "................" + mHighLightProgressPos);
+            if (mRenderer.isHighLightBarChanged(oldPos, mHighLightProgressPos, mViewport.getScrollX())) {
+                postInvalidate();
+            }
         }
     }
 
     public void seekHighLightToTime(int ts) {
-        if (!mInited || mConvertAdapter == null) return;
-        Log.d(TAG, "seekHighLightToTime() called with: ts = [" + ts + "]");
-        seekHighLight(mConvertAdapter.getPixByTime(ts) - mLastPageStart);
+        if (!mInited || !mViewport.isReady()) return;
+        if (WaveLog.isEnabled()) WaveLog.d(TAG, "seekHighLightToTime() called with: ts = [" + ts + "]");
+        seekHighLight((float) (mViewport.timeToPix(ts) - mLastPageStart));
     }
 
     protected void clearHighLight() {
@@ -446,16 +731,7 @@ public class WaveSelector extends View {
 
     public void stopHighLight() {
         isProgressing = false;
-
-        if (this.timerTask != null) {
-            this.timerTask.cancel();
-            this.timerTask = null;
-        }
-
-        if (this.timer != null) {
-            this.timer.cancel();
-            this.timer = null;
-        }
+        mFrameClock.removeFrameCallback(mHighLightFrameCallback);
 
 //        post(new Runnable() {
 //            @Override
@@ -471,25 +747,44 @@ public class WaveSelector extends View {
     public boolean onTouchEvent(MotionEvent event) {
 //        Log.v(TAG, "onTouchEvent." + event.getAction() + " x:" + event.getX() + ", y:" + event.getY() + " --> " + mCurrentLeft);
 
+        if (mPinchZoomEnabled) {
+            mScaleDetector.onTouchEvent(event);
+            if (mIsScaling) {
+                // 缩放过程中不滚动，直到所有手指抬起
+                int action = event.getActionMasked();
+                if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+                    mIsScaling = false;
+                    mIsDragging = false;
+                    if (mVelocityTracker != null) {
+                        mVelocityTracker.recycle();
+                        mVelocityTracker = null;
+                    }
+                }
+                return true;
+            }
+        }
+
         if (mVelocityTracker == null) {
             mVelocityTracker = VelocityTracker.obtain();
         }
         mVelocityTracker.addMovement(event);
+        double oldScrollX = mViewport.getScrollX();
+        float oldProgressPos = mHighLightProgressPos;
 
         switch (event.getAction()) {
             case MotionEvent.ACTION_DOWN:
-                if (!mScroll.isFinished()) {
-                    mScroll.abortAnimation();
-                }
+                // 新的手势开始，未停止的 fling 不再回调onSelect
+                stopFling();
                 mLastX = event.getX();
                 mLastDownX = mLastX;
                 mIsDragging = true;
+                if (mMetrics != null) mMetrics.onGestureStart();
 
                 return true;
 
             case MotionEvent.ACTION_MOVE:
                 float moveDiff = event.getX() - mLastX;
-                mCurrentLeft -= moveDiff;// 反向滚动
+                mViewport.scrollBy(-moveDiff);// 反向滚动
                 mLastX = event.getX();
                 if (moveDiff >= MIN_MOVE_DISTANCE) {
                     mDragDirection = Direction_RIGHT;
@@ -505,13 +800,13 @@ public class WaveSelector extends View {
                 }
 
 //                if (!isAvailed(mCurrentLeft)) {
-                if (mInited && mCurrentLeft > mMaxScrollX) {
+                if (mInited && mViewport.getScrollX() > mViewport.getMaxScrollX()) {
                     callOnLimit();
                 }
 
                 break;
             case MotionEvent.ACTION_UP:
-                mCurrentLeft -= event.getX() - mLastX;// 反向滚动
+                mViewport.scrollBy(mLastX - event.getX());// 反向滚动
                 mLastX = event.getX();
                    /*mScroll.startScroll(mScroll.getCurrX(), 0, (int) (mScroll.getCurrX() - mCurrentLeft), 0, 0);
                    mIsDragging = false;*/
@@ -522,16 +817,23 @@ public class WaveSelector extends View {
                     int maxEndX = getMaxEndX();
                     int minStartX = 0;//mLeftPadding;// todo 头部被抹掉了2s, 181117 <--看不懂了，2s这是啥?
                     mScroll.forceFinished(true);
-                    Log.e(TAG, "mCurrentLeft:" + mCurrentLeft + ", xVelocity:" + xVelocity);
-                    mScroll.fling((int) mCurrentLeft, 0, xVelocity, 0,
+                    if (WaveLog.isEnabled()) WaveLog.e(TAG, "mCurrentLeft:" + mViewport.getScrollX() + ", xVelocity:" + xVelocity);
+                    mScroll.fling(mViewport.getScrollPix(), 0, xVelocity, 0,
                             minStartX, maxEndX, 0, 0);
+                    // 最终位置在抬手时确定，超出最大滚动位置时减速停在边界
+                    if (mScroll.getFinalX() > mViewport.getMaxScrollX()) {
+                        mScroll.setFinalX((int) mViewport.getMaxScrollX());
+                    }
+                    if (mMetrics != null) mMetrics.onFling();
+                    prepareLanding(mScroll.getFinalX());
+                    mScrollController.startFling();
 
                     mVelocityTracker.recycle();
                     mVelocityTracker = null;
 
                 }
 //                callbackScroll();
-                if (mCurrentLeft <= MIN_MOVE_DISTANCE) {
+                if (mViewport.getScrollX() <= MIN_MOVE_DISTANCE) {
 //                    callbackScroll();// 这里首次会误触一次0
                 }
                 mIsDragging = false;
@@ -547,128 +849,161 @@ public class WaveSelector extends View {
                 break;
         }
 
-        mCurrentLeft = Math.max(0, mCurrentLeft);
-        postInvalidate();
+        if (mViewport.getScrollX() < 0) {
+            mViewport.setScrollX(0);
+        }
+        // 移动时位置和高亮都没变就不重绘
+        if (event.getAction() != MotionEvent.ACTION_MOVE || mViewport.getScrollX() != oldScrollX) {
+            postInvalidate();
+        } else if (mHighLightProgressPos != oldProgressPos) {
+            invalidateHighLight(oldProgressPos);
+        }
 //        Log.v(TAG, "onTouchEvent." + event.getAction() + " x:" + event.getX() + ", y:" + event.getY() + " ==> " + mCurrentLeft);
 
         return super.onTouchEvent(event);
     }
 
     protected int getMaxEndX() {
-        return Math.round(Math.min(Integer.MAX_VALUE, mData.size() * (mWaveSize + mWaveSpace) + mPaddingPix * 2 /*- mRightPadding*/));
+        return (int) Math.round(Math.min(Integer.MAX_VALUE, getDrawData().size() * (double) (mWaveSize + mWaveSpace) + mPaddingPix * 2 /*- mRightPadding*/));
     }
 
     /**
-     * mCurrentLeft will modify after fling.
+     * fling 或 seek 过程中每帧的位置
      *
-     * @see #onTouchEvent(MotionEvent) case MotionEvent.ACTION_UP
+     * @see FlingSettler
      */
-    @Override
-    public void computeScroll() {
-//        Log.d(TAG, "computeScroll() called" + mCurrentLeft);
+    private void onFlingFrame(int x) {
+        WaveLog.beginSection("WaveSelector#flingFrame");
+        if (mMetrics != null) mMetrics.onScrollFrame();
+        mViewport.syncScroller(x / SCROLL_SENSITIVITY);
+        if (mLandingPending) {
+            // 每帧最多渲染一块落点的分块，已渲染的块固定在缓存中，被丢弃的块下一帧重新渲染
+            mRenderer.prepareTiles(getDrawData(), mLandingFrom, mLandingTo, 1);
+        }
+        invalidate();
+        callbackScrolling();
+        WaveLog.endSection();
+    }
 
-        if (mScroll.computeScrollOffset()) {
-            int tmp2 = mScroll.getCurrX();
-            if (isAvailed(tmp2)) {
-                mCurrentLeft = tmp2 / SCROLL_SENSITIVITY;
-            } else {
-                mScroll.forceFinished(true);
-            }
-            postInvalidate();
-            mLastScrollEndTS = System.currentTimeMillis();
+    /**
+     * fling 或 seek 停止，位置为开始时确定的最终位置
+     */
+    private void onFlingSettled(int finalX) {
+        if (WaveLog.isEnabled()) WaveLog.d(TAG, "onFlingSettled() called with: finalX = [" + finalX + "]");
+        if (mLandingPending) {
+            mLandingPending = false;
+            if (mMetrics != null) mMetrics.onPrefetchResult(isLandingReady());
+            mRenderer.unpinTiles();
+        }
+        mViewport.syncScroller(finalX / SCROLL_SENSITIVITY);
+        invalidate();
+        if (mMetrics != null) mMetrics.onScrollEnd();
+        callbackScroll();
+    }
 
-            if (mLastCurrX != tmp2) {
-                callbackScrolling();
-            }
-        } else {
-            int tmp = mScroll.getCurrX();
-            if (mLastCurrX != tmp) {
-                if (mLastScrollEndTS > 0 && System.currentTimeMillis() - mLastScrollEndTS < 100) {
-                    Log.w(TAG, "...........fling end......");
-                    // fix position after a quick fling.
-                    mCurrentLeft = tmp / SCROLL_SENSITIVITY;
-                    if (!mIgnoreCallBack) {
-                        Log.e(TAG, "ignore current callBack()...");
-                        callbackScroll();
-                    }
+    /**
+     * 停止 fling 和 seek 动画，不回调onSelect
+     */
+    private void stopFling() {
+        mScrollController.stop();
+        mLandingPending = false;
+        mRenderer.unpinTiles();
+    }
 
-                    mIgnoreCallBack = false;
-                }
-                mLastCurrX = tmp / SCROLL_SENSITIVITY;
-            }
+    /**
+     * 滚动开始时就确定了最终位置，预取落点的数据，分块在之后的滚动帧中渲染
+     *
+     * @param finalX Scroller 的最终位置
+     */
+    private void prepareLanding(int finalX) {
+        mLandingPending = false;
+        if (!mViewport.isReady()) return;
+        IWaveData data = getDrawData();
+        double left = Math.max(0, Math.min(mViewport.getMaxScrollX(), finalX / SCROLL_SENSITIVITY));
+        mLandingFrom = mRenderer.getWindowFrom(data.size(), left);
+        mLandingTo = mRenderer.getWindowTo(data.size(), left);
+        mLandingPending = true;
+        prefetchWindow(mLandingFrom, mLandingTo);
+    }
+
+    /**
+     * @return 落点的分块都已渲染，数据源的页或多分辨率数据都已加载
+     */
+    private boolean isLandingReady() {
+        // 缩放时多分辨率数据还在后台构建，落点只能绘制占位数据
+        if (mDataSource != null && mZoomLevel > 0 && !mSourcePyramid.isReady()) return false;
+        if (mRenderer.prepareTiles(getDrawData(), mLandingFrom, mLandingTo, 0) > 0) return false;
+        // 缩放时绘制后台构建的多分辨率数据，不读取数据源
+        if (mZoomLevel == 0 && mDataSource instanceof FileWaveDataSource) {
+            return ((FileWaveDataSource) mDataSource).isLoaded(mLandingFrom, mLandingTo);
         }
+        return true;
     }
 
     private void callbackScroll() {
-        Log.d(TAG, "callbackScroll() called" + " ... " + mCurrentLeft);
+        double currentLeft = mViewport.getScrollX();
+        if (WaveLog.isEnabled()) WaveLog.d(TAG, "callbackScroll() called" + " ... " + currentLeft);
         mIsLimiting = false;
-        if (mConvertAdapter != null && (mListener != null && (mLastPageStart != mCurrentLeft || System.currentTimeMillis() - mLastCallBackScrollTime > 200) || mCurrentLeft == 0)) {// 0最左端，也需要触发onSelect，这里hack一下吧。。            mLastPageStart = mCurrentLeft;
-            mLastScrollingPageStart = mCurrentLeft;
-            long ts = mConvertAdapter.getTimeByPix(mCurrentLeft);
-            mListener.onSelect(ts);
-            mLastCallBackScrollTime = System.currentTimeMillis();
+        // 每次滑动停止只调用一次，不需要去重
+        if (mViewport.isReady() && mDispatcher.getListener() != null) {
+            mLastScrollingPageStart = currentLeft;
+            long ts = mViewport.pixToTime(currentLeft);
+            mDispatcher.dispatchSelect(ts);
+            if (mMetrics != null) mMetrics.onSelect();
         }
     }
 
     private void callbackScrolling() {
 //        Log.v(TAG, "callbackScrolling() called");
-        if (mConvertAdapter != null && mListener != null /*&& mLastPageStart != mCurrentLeft*/ && smoothScrollValid()) {
+        if (mViewport.isReady() && mDispatcher.getListener() != null /*&& mLastPageStart != mCurrentLeft*/ && smoothScrollValid()) {
 //            mLastPageStart = mCurrentLeft;
-            long ts = mConvertAdapter.getTimeByPix(mCurrentLeft);
-            mListener.onChanging(ts);
+            long ts = mViewport.getScrollTime();
+            mDispatcher.dispatchChanging(ts);
+            if (mMetrics != null) mMetrics.onChanging();
         }
     }
 
     private boolean smoothScrollValid() {
         boolean ret = false;
+        double currentLeft = mViewport.getScrollX();
         if (mSmoothScrollEnable) {
 //            long tsLast = mConvertAdapter.getTimeByPix(mLastScrollingPageStart);
 //            long tsNow = mConvertAdapter.getTimeByPix(mCurrentLeft);
 //            Log.v(TAG, "N:" + tsNow + ", L:" + tsLast);
             if (mDragDirection == Direction_LEFT) {
-                ret = mCurrentLeft >= mLastScrollingPageStart;
+                ret = currentLeft >= mLastScrollingPageStart;
             } else if (mDragDirection == Direction_RIGHT) {
-                ret = mCurrentLeft <= mLastScrollingPageStart;
+                ret = currentLeft <= mLastScrollingPageStart;
             } else {
 //                ret = true;
             }
         }
 
-        mLastScrollingPageStart = mCurrentLeft;
+        mLastScrollingPageStart = currentLeft;
 
         return ret;
     }
 
-    private ConcurrentLinkedQueue<Volume> getCurrentPageData() {
-        if (mConvertAdapter == null) return EMPTY_QUEUE;
-        int index = (int) ((mCurrentLeft - mPaddingPix) / (mWaveSize + mWaveSpace));
-//        Log.v(TAG, "left:" + mCurrentLeft + ", idx:" + index);
-        // 当前页的数量
-        int pageMax = Math.min(mData.size(), mWavePageCount + 1);
+    /**
+     * 更新最大滚动位置，仅在数据、尺寸或最少可选时长变化时调用，不在绘制时重复计算
+     */
+    private void updateMaxScrollX() {
+        if (!mViewport.isReady()) return;
+        int size = getDrawData().size();
+        double unit = mWaveSize + mWaveSpace;
         int pageSize = mWavePageCount + 1;
-        // 最后一页的开始数据index
-//        int lastPageIndex = (int) (mData.size() - pageMax + (mPaddingPix / (mWaveSize + mWaveSpace)));
-        int lastPageIndex = Math.max(0, (int) (mData.size() - pageSize + (mPaddingPix / (mWaveSize + mWaveSpace))));
-
-        if (index < 0) index = 0;
-        if (index > lastPageIndex) index = lastPageIndex;
+        int lastPageIndex = mRenderer.getLastPageIndex(size);
 
         // 最后一页开始的滚动位置
-        float limitPix = mConvertAdapter.getPixByTime(mDefaultLimitSelectTime);
-        int zz = (int) ((mWaveSize + mWaveSpace) * lastPageIndex) + mPaddingPix;
-        int yy = mData.size() < pageSize ? (int) (mData.size() * (mWaveSize + mWaveSpace) - limitPix) : Integer.MAX_VALUE;
-        int tmpMaxScrollX = (int) (Math.min(zz, yy) - limitPix);
-        mMaxScrollX = Math.max(0, tmpMaxScrollX);
-
-        int to = Math.min(index + pageMax, Math.max(mData.size() - 1, 0));
-        int from = Math.min(index, to);
-        List<Volume> subList = mData.subList(from, to);
-
-        return new ConcurrentLinkedQueue<>(subList);
+        double limitPix = mViewport.timeToPix(mDefaultLimitSelectTime);
+        long zz = (long) (unit * lastPageIndex) + mPaddingPix;
+        long yy = size < pageSize ? (long) (size * unit - limitPix) : Long.MAX_VALUE;
+        long tmpMaxScrollX = (long) (Math.min(zz, yy) - limitPix);
+        mViewport.setMaxScrollX(Math.max(0, tmpMaxScrollX));
     }
 
-    boolean isAvailed(float currentX) {
-        return currentX <= mMaxScrollX/* - mRightPadding*/ && currentX >= 0;// + mLeftPadding;
+    boolean isAvailed(double currentX) {
+        return mViewport.isAvailable(currentX);
     }
 
     /////////////////////////////////////////////////////////
@@ -679,24 +1014,77 @@ public class WaveSelector extends View {
      * @param ll 数据
      */
     public void setData(List<Integer> ll) {
-        Log.d(TAG, "setData()");
+        WaveLog.d(TAG, "setData()");
         if (ll == null) return;
 
 //        Log.v(TAG, "setData() called with: ll = [" + ll.subList(0, Math.min(ll.size(), 10)) + "]..." + ", mInited:" + mInited);
+        if (!checkSetData()) return;
+
+        mData.set(ll);
+        onDataSet();
+    }
+
+    /**
+     * 设置波形数据，不经过装箱
+     *
+     * @param volumes 音量，0 ~ 65535
+     * @param offset  起始位置
+     * @param length  个数
+     */
+    public void setData(int[] volumes, int offset, int length) {
+        if (volumes == null || !checkSetData()) return;
+        mData.set(volumes, offset, length);
+        onDataSet();
+    }
+
+    /**
+     * 设置波形数据，short 按无符号16位音量解释
+     */
+    public void setData(short[] volumes, int offset, int length) {
+        if (volumes == null || !checkSetData()) return;
+        mData.set(volumes, offset, length);
+        onDataSet();
+    }
+
+    /**
+     * 设置 position 到 limit 之间的波形数据，不改变 buffer 的位置
+     */
+    public void setData(ShortBuffer volumes) {
+        if (volumes == null || !checkSetData()) return;
+        mData.set(volumes);
+        onDataSet();
+    }
+
+    /**
+     * 设置波形数据，每个音量为按 buffer 字节序排列的16位无符号数，可以是解码器输出的 direct buffer
+     *
+     * @param volumes 音量数据，不改变位置
+     * @param offset  起始字节
+     * @param length  字节数，必须为偶数
+     */
+    public void setData(ByteBuffer volumes, int offset, int length) {
+        if (volumes == null || !checkSetData()) return;
+        mData.set(volumes, offset, length);
+        onDataSet();
+    }
+
+    private boolean checkSetData() {
         if (mInited) {
-            Log.e(TAG, "setData(). already inited. ignore...");
-            return;
+            WaveLog.e(TAG, "setData(). already inited. ignore...");
+            return false;
         }
+        return true;
+    }
 
+    private void onDataSet() {
         mInited = true;
-        for (int i = 0; i < ll.size(); i++) {
-            mData.add(new Volume(ll.get(i)));
-        }
+        mPyramid.reset();
+        mRenderer.invalidateTiles();
+        updateMaxScrollX();
 
         invalidate();
 
         callOnReady();
-
     }
 
     /**
@@ -705,82 +1093,261 @@ public class WaveSelector extends View {
      * @param ll 数据
      */
     public void refreshData(List<Integer> ll) {
-        Log.d(TAG, "refreshData() called with: ll = [" + ll + "]");
         if (ll == null) return;
+        if (WaveLog.isEnabled()) WaveLog.d(TAG, "refreshData() called with: size = [" + ll.size() + "]");
 
         if (!mInited) {
-            Log.e(TAG, "refreshData(). not inited. ignore...");
+            WaveLog.e(TAG, "refreshData(). not inited. ignore...");
             return;
         }
 
-        mData.clear();
-        for (int i = 0; i < ll.size(); i++) {
-            mData.add(new Volume(ll.get(i)));
+        mData.set(ll);
+        mPyramid.reset();
+        mRenderer.invalidateTiles();
+        updateMaxScrollX();
+
+        invalidate();
+    }
+
+    /**
+     * 追加波形数据，保持当前滚动位置和高亮状态，适用于边解码边绘制
+     * <p>
+     * 只有新增的波形落在可见区间内时才重绘
+     *
+     * @param ll 数据
+     */
+    public void appendData(List<Integer> ll) {
+        if (ll == null || ll.isEmpty()) return;
+
+        if (!mInited) {
+            setData(ll);
+            return;
         }
 
+        int oldSize = getDrawData().size();
+        mData.append(ll);
+        onDataAppended(oldSize);
+    }
+
+    /**
+     * @see #appendData(List)
+     * @see #setData(int[], int, int)
+     */
+    public void appendData(int[] volumes, int offset, int length) {
+        if (volumes == null || length == 0) return;
+
+        if (!mInited) {
+            setData(volumes, offset, length);
+            return;
+        }
+
+        int oldSize = getDrawData().size();
+        mData.append(volumes, offset, length);
+        onDataAppended(oldSize);
+    }
+
+    /**
+     * @see #appendData(List)
+     * @see #setData(short[], int, int)
+     */
+    public void appendData(short[] volumes, int offset, int length) {
+        if (volumes == null || length == 0) return;
+
+        if (!mInited) {
+            setData(volumes, offset, length);
+            return;
+        }
+
+        int oldSize = getDrawData().size();
+        mData.append(volumes, offset, length);
+        onDataAppended(oldSize);
+    }
+
+    /**
+     * @see #appendData(List)
+     * @see #setData(ShortBuffer)
+     */
+    public void appendData(ShortBuffer volumes) {
+        if (volumes == null || !volumes.hasRemaining()) return;
+
+        if (!mInited) {
+            setData(volumes);
+            return;
+        }
+
+        int oldSize = getDrawData().size();
+        mData.append(volumes);
+        onDataAppended(oldSize);
+    }
+
+    /**
+     * @see #appendData(List)
+     * @see #setData(ByteBuffer, int, int)
+     */
+    public void appendData(ByteBuffer volumes, int offset, int length) {
+        if (volumes == null || length == 0) return;
+
+        if (!mInited) {
+            setData(volumes, offset, length);
+            return;
+        }
+
+        int oldSize = getDrawData().size();
+        mData.append(volumes, offset, length);
+        onDataAppended(oldSize);
+    }
+
+    /**
+     * @param oldSize 追加前当前缩放层级的波形个数
+     */
+    private void onDataAppended(int oldSize) {
+        mRenderer.invalidateTiles(Math.max(0, oldSize - 1));
+        updateMaxScrollX();
+
+        // 数据不足一页时最后一个波形不绘制，追加后也需要补上
+        if (isIndexRangeVisible(Math.max(0, oldSize - 1), getDrawData().size())) {
+            invalidate();
+        }
+    }
+
+    /**
+     * 由后台线程写入数据，写入后自动在主线程刷新，适用于边解码边绘制
+     * <p>
+     * 设置后绘制使用 publisher 发布的快照，{@link #setData(List)} 等方法写入的数据不再显示，传入 null 恢复。
+     * 首次发布非空数据时与 {@link #setData(List)} 一样触发 onReady。
+     *
+     * @param publisher 数据发布者，可以被多个控件共享
+     */
+    public void setDataPublisher(@Nullable WaveDataPublisher publisher) {
+        if (publisher == mPublisher) return;
+        if (mPublisher != null) {
+            mPublisher.removeListener(mPublishListener);
+            mMainHandler.removeCallbacks(mApplySnapshotRunnable);
+            mSnapshotPending.set(false);
+        }
+        mPublisher = publisher;
+        mSnapshot = WaveSnapshot.EMPTY;
+        mPyramid.reset();
+        mRenderer.invalidateTiles();
+        updateMaxScrollX();
+        if (publisher != null) {
+            publisher.addListener(mPublishListener);
+            applySnapshot();
+        }
         invalidate();
     }
 
     /**
-     * 从start位置开始
+     * 使用按需加载的数据源，控件只读取可见区间的数据，并在绘制前预取可见区间两侧的数据
+     * <p>
+     * 设置后代替 {@link #setData(List)} 和 {@link #setDataPublisher(WaveDataPublisher)} 的数据，传入 null 恢复。
+     * 缩放时在后台顺序读取一遍数据源构建多分辨率数据，构建完成前缩放层级下的波形为空。数据源内容变化后需要重新设置。
      *
-     * @param start start
+     * @param source 数据源
      */
-    public void seekTo(int start) {
-        Log.d(TAG, "seekTo() called with: start time = [" + start + "] , from pos = [" + mCurrentLeft + "], max= [" + mMaxScrollX + "]");
-        if (mInited && mIsOnPreDraw) {
-            Log.d(TAG, "scrollTo... to:" + start);
-
-//            mCurrentLeft =  mScroll.getFinalX();
-//            mScroll.fling((int) mCurrentLeft, 0, 11, 0,
-//                    0, getMaxEndX(), 0, 0);
-//            mScroll.startScroll(mCurrentLeft, 0, (int) mConvertAdapter.getPixByTime(start) - mCurrentLeft, 0, 0);
-//            MotionEvent.obtain(0, System.currentTimeMillis(), MotionEvent.ACTION_SCROLL,
-//                           1, pointerProperties, pointerCoords, 0, 0, xPrecision, yPrecision, deviceId,
-//                           edgeFlags, inputDevice, flags);
-//               }
-            if (mVelocityTracker == null) {
-                setSimulateClick(this, 0, 0);
-            }
+    public void setDataSource(@Nullable IWaveDataSource source) {
+        if (source == mDataSource) return;
+        mDataSource = source;
+        mSourcePyramid.setSource(source);
+        mPyramid.reset();
+        mRenderer.invalidateTiles();
+        updateMaxScrollX();
+        if (source != null && !mInited && source.size() > 0) {
+            mInited = true;
+            callOnReady();
+        }
+        invalidate();
+    }
 
-            int lastCurrentX = mCurrentLeft;
-            int newCurrentX = Math.round(mConvertAdapter.getPixByTime(start));
+    /**
+     * @param margin 可见区间两侧预取的波形个数，小于0时为一屏
+     */
+    public void setPrefetchMargin(int margin) {
+        mPrefetchMargin = margin;
+    }
 
-            if (newCurrentX > mMaxScrollX) {
-                newCurrentX = (int) mMaxScrollX;
-            }
+    /**
+     * 主线程应用最新的快照，追加时只增量更新
+     */
+    private void applySnapshot() {
+        mSnapshotPending.set(false);
+        if (mPublisher == null) return;
+        WaveSnapshot snapshot = mPublisher.snapshot();
+        WaveSnapshot previous = mSnapshot;
+        if (snapshot == previous) return;
+        if (mDataSource != null) {
+            // 数据源优先，只记录快照，恢复时整体刷新
+            mSnapshot = snapshot;
+            return;
+        }
 
-            mScroll.setFinalX(newCurrentX);
-            if (lastCurrentX == newCurrentX) {// 这种两次相同的场景得强制触发一次callbackScroll
-                callbackScroll();
+        if (!mInited) {
+            if (snapshot.size() == 0) return;
+            mSnapshot = snapshot;
+            mInited = true;
+            mPyramid.reset();
+            mRenderer.invalidateTiles();
+            updateMaxScrollX();
+            invalidate();
+            callOnReady();
+        } else if (snapshot.isAppendOf(previous)) {
+            int oldSize = getDrawData().size();
+            mSnapshot = snapshot;
+            mPyramid.rebase(snapshot);
+            mRenderer.invalidateTiles(Math.max(0, oldSize - 1));
+            updateMaxScrollX();
+            if (isIndexRangeVisible(Math.max(0, oldSize - 1), getDrawData().size())) {
+                invalidate();
             }
         } else {
-            mAutoSeekTo = start;
-            Log.d(TAG, "seekTo later... to:" + start);
+            mSnapshot = snapshot;
+            mPyramid.reset();
+            mRenderer.invalidateTiles();
+            updateMaxScrollX();
+            invalidate();
         }
     }
 
+    private boolean isIndexRangeVisible(int from, int to) {
+        if (!mViewport.isReady()) return false;
+        mRenderer.updateVisibleWindow(getDrawData().size(), mViewport.getScrollX());
+        return from < mRenderer.getVisibleTo() && to > mRenderer.getVisibleFrom();
+    }
+
     /**
-     * hack 方法，模拟一次点击，防止首次seek无效
+     * 从start位置开始，立即完成
      *
-     * @param view v
-     * @param x    x
-     * @param y    y
+     * @param start start
+     * @see #seekTo(long, int, TimeInterpolator)
      */
-    private void setSimulateClick(View view, float x, float y) {
-        Log.d(TAG, "setSimulateClick() called with: view = [" + view + "], x = [" + x + "], y = [" + y + "]");
-        long downTime = SystemClock.uptimeMillis();
-        final MotionEvent downEvent = MotionEvent.obtain(downTime, downTime,
-                MotionEvent.ACTION_DOWN, x, y, 0);
-        downTime += 1;
-        final MotionEvent upEvent = MotionEvent.obtain(downTime, downTime,
-                MotionEvent.ACTION_UP, x, y, 0);
-        view.onTouchEvent(downEvent);
-        view.onTouchEvent(upEvent);
-        downEvent.recycle();
-        upEvent.recycle();
+    public void seekTo(int start) {
+        seekTo(start, 0, null);
     }
 
+    /**
+     * 滚动到指定时间，停止后回调一次 onSelect，时间与 start 完全一致（超出范围时停在边界）
+     * <p>
+     * 界面还没 ready 时先保存，onReady 后无动画地还原；进行中的 fling 和 seek 会被取消且不回调
+     *
+     * @param start        时间，毫秒
+     * @param duration     动画时长，毫秒，不大于0时立即完成并同步回调
+     * @param interpolator 动画插值，null 时减速
+     */
+    public void seekTo(long start, int duration, @Nullable TimeInterpolator interpolator) {
+        if (WaveLog.isEnabled()) WaveLog.d(TAG, "seekTo() called with: start time = [" + start + "], duration = [" + duration + "], from pos = [" + mViewport.getScrollX() + "], max= [" + mViewport.getMaxScrollX() + "]");
+        if (!mInited || !mIsOnPreDraw) {
+            mAutoSeekTo = start;
+            if (WaveLog.isEnabled()) WaveLog.d(TAG, "seekTo later... to:" + start);
+            return;
+        }
+
+        stopFling();
+        // 超出最大滚动位置时停在最大位置，不大于0的时长在这里同步回调 onSelect
+        int targetX = mScrollController.seekTo(start, duration, interpolator);
+        if (mScrollController.isScrolling()) {
+            prepareLanding(targetX);
+        }
+    }
 
     /**
      * 设置截取时长
@@ -790,15 +1357,15 @@ public class WaveSelector extends View {
     public void setPlayDuration(int duration) {
         boolean showLog = duration != mLastDuration;
         if (showLog) {
-            Log.d(TAG, "setPlayDuration() called with: duration = [" + duration + "]");
+            if (WaveLog.isEnabled()) WaveLog.d(TAG, "setPlayDuration() called with: duration = [" + duration + "]");
         }
         mLastDuration = duration;
         mPlayDuration = duration;
-        if (isProgressing && mConvertAdapter != null) {
+        if (isProgressing && mViewport.isReady()) {
             int start = mPaddingPix;
-            mHighLightEndPos = Math.round(start + mConvertAdapter.getPixByTime(mPlayDuration));
+            mHighLightEndPos = Math.round(start + mViewport.timeToPix(mPlayDuration));
             if (showLog) {
-                Log.w(TAG, "setPlayDuration, already progressing, refresh mHighLightEndPos:" + mHighLightEndPos);
+                if (WaveLog.isEnabled()) WaveLog.w(TAG, "setPlayDuration, already progressing, refresh mHighLightEndPos:" + mHighLightEndPos);
             }
         }
     }
@@ -813,8 +1380,168 @@ public class WaveSelector extends View {
      * @param timeSpan 时长
      */
     public void setLimitedSelectTime(int timeSpan) {
-        Log.d(TAG, "setLimitedSelectTime: " + timeSpan);
+        if (WaveLog.isEnabled()) WaveLog.d(TAG, "setLimitedSelectTime: " + timeSpan);
         mDefaultLimitSelectTime = timeSpan;
+        updateMaxScrollX();
+    }
+
+    /////////////////////////////////////////////////////////
+
+    /**
+     * 设置缩放层级，缩放时保持选择线对应的时间不变
+     *
+     * @param level 缩放层级，第level层每个波形聚合 2^level 个波形点，0 为原始精度
+     */
+    public void setZoomLevel(int level) {
+        level = Math.max(0, Math.min(level, getMaxZoomLevel()));
+        if (level == mZoomLevel) return;
+
+        if (WaveLog.isEnabled()) WaveLog.d(TAG, "setZoomLevel() called with: level = [" + level + "]");
+        int oldLevel = mZoomLevel;
+        mZoomLevel = level;
+        if (!mViewport.isReady()) return;// onPreDraw 时生效
+
+        // 换算比例变化时选择线对应的时间不变
+        mViewport.setAdapter(createConvertAdapter());
+        mRenderer.invalidateTiles();
+        updateMaxScrollX();
+
+        // 高亮区间以选择线为起点，按比例缩放
+        float factor = (float) (1 << oldLevel) / (1 << level);
+        mHighLightStartPos = mPaddingPix + (mHighLightStartPos - mPaddingPix) * factor;
+        mHighLightProgressPos = mPaddingPix + (mHighLightProgressPos - mPaddingPix) * factor;
+        mHighLightEndPos = mPaddingPix + (mHighLightEndPos - mPaddingPix) * factor;
+        anchorHighLight();
+
+        stopFling();
+        mViewport.clampScroll();
+        mLastAvailableLeft = mViewport.getScrollX();
+        invalidate();
+    }
+
+    public int getZoomLevel() {
+        return mZoomLevel;
+    }
+
+    /**
+     * @return 最大缩放层级，此时整个波形不超过一屏
+     */
+    public int getMaxZoomLevel() {
+        int level = 0;
+        int size = getBaseData().size();
+        while (size > mWavePageCount && level < WavePyramid.MAX_LEVEL) {
+            size = (size + 1) / 2;
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * 是否允许双指缩放，默认允许
+     */
+    public void setPinchZoomEnabled(boolean enabled) {
+        mPinchZoomEnabled = enabled;
+    }
+
+    /**
+     * 设置绘制方式
+     *
+     * @param renderMode {@link #RENDER_MODE_DIRECT}、{@link #RENDER_MODE_TILE} 或 {@link #RENDER_MODE_BATCH}
+     */
+    public void setRenderMode(int renderMode) {
+        mRenderer.setRenderMode(renderMode);
+        invalidate();
+    }
+
+    /**
+     * {@link #RENDER_MODE_TILE} 模式下分块位图缓存的字节预算，至少会保留两屏所需的分块（当前一屏和 fling 落点一屏）
+     *
+     * @param maxBytes 字节数
+     */
+    public void setTileCacheSize(int maxBytes) {
+        mRenderer.setTileCacheSize(maxBytes);
+    }
+
+    /**
+     * 设置波形播放段的渐变色，多个颜色均匀分布在高亮区间内
+     *
+     * @param colors 渐变色，至少一个
+     */
+    public void setPlayingColors(int... colors) {
+        if (colors == null || colors.length == 0) return;
+        mPlayingColors = colors.clone();
+        mRenderer.setPlayingColors(mPlayingColors);
+        invalidate();
+    }
+
+    /**
+     * 设置波形颜色，分块位图只保存透明度，不需要重建
+     *
+     * @param color 颜色
+     */
+    public void setWaveColor(int color) {
+        mWavePaint.setColor(color);
+        invalidate();
+    }
+
+    /**
+     * 开启或关闭性能统计，关闭时丢弃已有数据，只剩一次判空的开销
+     *
+     * @param enabled 是否开启
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        if (enabled) {
+            if (mMetrics == null) mMetrics = new WaveMetrics();
+        } else {
+            mMetrics = null;
+        }
+    }
+
+    /**
+     * @return 性能统计，未开启时为null
+     */
+    @Nullable
+    public WaveMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    private SizeConvertAdapter createConvertAdapter() {
+        return new SizeConvertAdapter(mPIX_PER_SECOND / (1 << mZoomLevel));
+    }
+
+    /**
+     * @return 原始数据，设置了 {@link WaveDataPublisher} 时为当前快照
+     */
+    private IWaveData getBaseData() {
+        if (mDataSource != null) return mDataSource;
+        return mPublisher != null ? mSnapshot : mData;
+    }
+
+    private void prefetchVisibleWindow() {
+        prefetchWindow(mRenderer.getVisibleFrom(), mRenderer.getVisibleTo());
+    }
+
+    /**
+     * 对可见区间加上预取余量通知数据源，缩放时绘制的是后台构建的多分辨率数据，不读取数据源
+     */
+    private void prefetchWindow(int visibleFrom, int visibleTo) {
+        if (mDataSource == null || mZoomLevel > 0) return;
+        int margin = mPrefetchMargin >= 0 ? mPrefetchMargin : mWavePageCount;
+        long from = Math.max(0, visibleFrom - margin);
+        long to = visibleTo + 1L + margin;
+        mDataSource.prefetch((int) Math.min(Integer.MAX_VALUE, from), (int) Math.min(Integer.MAX_VALUE, to));
+    }
+
+    /**
+     * @return 当前缩放层级下绘制用的数据
+     */
+    private IWaveData getDrawData() {
+        IWaveData base = getBaseData();
+        if (mZoomLevel == 0) return base;
+        // 数据源可能是整个文件，不在主线程读取全部数据
+        if (mDataSource != null) return mSourcePyramid.getLevel(mZoomLevel);
+        mPyramid.update(base);
+        return mPyramid.getLevel(mZoomLevel);
     }
 
     /////////////////////////////////////////////////////////
@@ -829,7 +1556,26 @@ public class WaveSelector extends View {
     }
 
     public void setListener(IWaveSelectorListener listener) {
-        this.mListener = listener;
+        mDispatcher.setListener(listener);
+    }
+
+    /**
+     * 限制 onChanging 的频率，被推迟的回调送达时总是最新的位置，onSelect 前未送达的 onChanging 被丢弃
+     *
+     * @param minInterval 两次 onChanging 的最小间隔，毫秒，0 不限制
+     * @param minDelta    与上次 onChanging 的时间差小于该值时不回调，毫秒，0 不限制
+     */
+    public void setChangingThrottle(long minInterval, long minDelta) {
+        mDispatcher.setChangingThrottle(minInterval, minDelta);
+    }
+
+    /**
+     * 设置回调执行的线程，回调按产生的顺序串行执行，积压的 onChanging 合并为最新的一个
+     *
+     * @param executor 可以是线程池，null 时在主线程同步回调
+     */
+    public void setListenerExecutor(@Nullable Executor executor) {
+        mDispatcher.setExecutor(executor);
     }
 
     /////////////////////////////////////////////////////////
@@ -839,7 +1585,11 @@ public class WaveSelector extends View {
 
         public Volume(int vol) {
             this.vol = vol;
-            this.percent = Math.max(0.05f, vol * 1.0f / 65536);// 最低5%，不要让波形图空着
+            this.percent = toPercent(vol);
+        }
+
+        static float toPercent(int vol) {
+            return Math.max(0.05f, vol * 1.0f / 65536);// 最低5%，不要让波形图空着
         }
 
         @Override
@@ -850,34 +1600,85 @@ public class WaveSelector extends View {
 
     /////////////////////////////////////////////////////////
     public static class SizeConvertAdapter {
-        float mPixPerSec;
+        // 每毫秒的像素数
+        final double mPixPerMs;
 
+        /**
+         * @deprecated 换算比例由每个 WaveSelector 单独持有，控件不再读写这个全局实例
+         */
+        @Deprecated
         public static SizeConvertAdapter instance;
 
-        public SizeConvertAdapter(float pixPerSec) {
-            mPixPerSec = pixPerSec;
+        /**
+         * @param pixPerMs 每毫秒的像素数
+         */
+        public SizeConvertAdapter(double pixPerMs) {
+            mPixPerMs = pixPerMs;
         }
 
+        /**
+         * 保留原有签名，已编译的调用方不需要重新编译，参数含义与 {@link #SizeConvertAdapter(double)} 相同
+         *
+         * @deprecated float 在长音频上精度不足，使用 {@link #SizeConvertAdapter(double)}
+         */
+        @Deprecated
+        public SizeConvertAdapter(float pixPerMs) {
+            this((double) pixPerMs);
+        }
+
+        /**
+         * @deprecated 使用 {@link #SizeConvertAdapter(double)}
+         */
+        @Deprecated
         public static void init(float pixPerSec) {
-            if (instance != null) Log.e(TAG, "help already initialized.");
-            instance = new SizeConvertAdapter(pixPerSec);
+            if (instance != null) WaveLog.e(TAG, "help already initialized.");
+            instance = new SizeConvertAdapter((double) pixPerSec);
         }
 
+        /**
+         * @deprecated 全局实例不再被控件使用
+         */
+        @Deprecated
         public static void dispose() {
             instance = null;
         }
 
-        private static SizeConvertAdapter getInstance() {
-            if (instance == null) throw new IllegalArgumentException("help must init() first.");
-            return instance;
+        public double getPixPerMs() {
+            return mPixPerMs;
+        }
+
+        /**
+         * @param time 时间，毫秒
+         * @return 像素位置
+         */
+        public double timeToPix(long time) {
+            return time * mPixPerMs;
+        }
+
+        /**
+         * 取最近的毫秒，{@code pixToTime(timeToPix(t)) == t}
+         *
+         * @param pix 像素位置
+         * @return 时间，毫秒
+         */
+        public long pixToTime(double pix) {
+            return Math.round(pix / mPixPerMs);
         }
 
+        /**
+         * @deprecated float 在长音频上精度不足，使用 {@link #timeToPix(long)}
+         */
+        @Deprecated
         public float getPixByTime(int time) {
-            return mPixPerSec * time;
+            return (float) timeToPix(time);
         }
 
+        /**
+         * @deprecated 使用 {@link #pixToTime(double)}，结果同样取最近的毫秒
+         */
+        @Deprecated
         public long getTimeByPix(long currentLeft) {
-            return (long) (currentLeft / mPixPerSec);
+            return pixToTime(currentLeft);
         }
     }
 
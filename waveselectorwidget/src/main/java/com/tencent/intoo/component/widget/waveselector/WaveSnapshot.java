@@ -0,0 +1,47 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+/**
+ * 不可变的波形数据快照，由 {@link WaveDataPublisher} 发布
+ * <p>
+ * 快照发布后 [0, size) 内的数据不会再被修改，可以在任意线程无锁读取。
+ * 同一代（{@link #getGeneration()} 相同）的快照之间只会在尾部追加数据。
+ */
+public final class WaveSnapshot implements IWaveData {
+    static final WaveSnapshot EMPTY = new WaveSnapshot(new short[0], 0, 0);
+
+    private final short[] mValues;
+    private final int mSize;
+    private final int mGeneration;
+
+    WaveSnapshot(short[] values, int size, int generation) {
+        mValues = values;
+        mSize = size;
+        mGeneration = generation;
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    @Override
+    public int getVolume(int index) {
+        if (index >= mSize) throw new IndexOutOfBoundsException("index " + index + ", size " + mSize);
+        return mValues[index] & ShortWaveData.MAX_VOLUME;
+    }
+
+    /**
+     * @return 数据代数，整体替换或清空时增加
+     */
+    public int getGeneration() {
+        return mGeneration;
+    }
+
+    /**
+     * @param previous 之前的快照
+     * @return 是否只是在 previous 的基础上追加了数据
+     */
+    boolean isAppendOf(WaveSnapshot previous) {
+        return previous != null && previous.mGeneration == mGeneration && previous.mSize <= mSize;
+    }
+}
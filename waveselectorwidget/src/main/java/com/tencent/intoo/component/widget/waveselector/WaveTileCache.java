@@ -0,0 +1,193 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.util.Arrays;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+/**
+ * 波形分块位图缓存
+ * <p>
+ * 每 {@link #TILE_BARS} 个波形渲染成一块 ALPHA_8 位图，绘制时用波形画笔着色，颜色变化不需要重建。
+ * 缓存按字节预算限制块数，超出时淘汰最久未使用的块并复用其位图；至少保留两屏所需的块，
+ * 一屏保证同一帧内用到的块不会被淘汰，另一屏留给 {@link #pin(int, int)} 固定的 fling 落点。
+ * 块数组在块尺寸确定后才分配，块尺寸为0时不占用内存。
+ */
+final class WaveTileCache {
+    // 每块的波形个数
+    static final int TILE_BARS = 32;
+    static final int DEFAULT_MAX_BYTES = 2 * 1024 * 1024;
+
+    private static final int NO_TILE = -1;
+
+    private final Canvas mTileCanvas = new Canvas();
+
+    private int mMaxBytes = DEFAULT_MAX_BYTES;
+    // 当前块数组按此预算分配
+    private int mAllocatedBytes;
+    private int mTileWidth;
+    private int mTileHeight;
+    // 至少保留的块数
+    private int mMinSlots = 1;
+
+    private int[] mTileIndexes = new int[0];
+    private Bitmap[] mBitmaps = new Bitmap[0];
+    private long[] mLastUsed = new long[0];
+    private long mFrame;
+    // 固定的块区间，包含两端，不参与淘汰
+    private int mPinnedFrom = NO_TILE;
+    private int mPinnedTo = NO_TILE;
+
+    int getTileWidth() {
+        return mTileWidth;
+    }
+
+    /**
+     * 只记录预算，下一次 {@link #setTileSize(int, int, int)} 时按预算重新分配
+     */
+    void setMaxBytes(int maxBytes) {
+        mMaxBytes = maxBytes;
+    }
+
+    int getSlotCount() {
+        return mTileIndexes.length;
+    }
+
+    /**
+     * 尺寸或预算变化时丢弃所有块，宽高不大于0时释放所有块
+     *
+     * @param tileWidth  块宽度
+     * @param tileHeight 块高度
+     * @param viewWidth  控件宽度，用于计算一屏需要的块数
+     */
+    void setTileSize(int tileWidth, int tileHeight, int viewWidth) {
+        if (tileWidth <= 0 || tileHeight <= 0) {
+            tileWidth = 0;
+            tileHeight = 0;
+        }
+        int minSlots = tileWidth > 0 ? viewWidth / tileWidth + 3 : 1;
+        if (tileWidth == mTileWidth && tileHeight == mTileHeight && minSlots == mMinSlots
+                && mMaxBytes == mAllocatedBytes) return;
+        mTileWidth = tileWidth;
+        mTileHeight = tileHeight;
+        mMinSlots = minSlots;
+        unpin();
+        if (tileWidth > 0) {
+            allocateSlots();
+        } else {
+            mTileIndexes = new int[0];
+            mBitmaps = new Bitmap[0];
+            mLastUsed = new long[0];
+            mAllocatedBytes = 0;
+        }
+    }
+
+    /**
+     * 丢弃所有块，位图保留复用
+     */
+    void clear() {
+        Arrays.fill(mTileIndexes, NO_TILE);
+    }
+
+    /**
+     * 丢弃包含 fromBar 及之后波形的块
+     */
+    void clearFrom(int fromBar) {
+        int fromTile = fromBar / TILE_BARS;
+        for (int i = 0; i < mTileIndexes.length; i++) {
+            if (mTileIndexes[i] >= fromTile) {
+                mTileIndexes[i] = NO_TILE;
+            }
+        }
+    }
+
+    /**
+     * @return 块是否已渲染
+     */
+    boolean hasTile(int tileIndex) {
+        for (int tileIndexInSlot : mTileIndexes) {
+            if (tileIndexInSlot == tileIndex) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 固定一段块，在 {@link #unpin()} 之前不被淘汰，最多固定一屏
+     *
+     * @param fromTile 起始块下标，包含
+     * @param toTile   结束块下标，包含
+     */
+    void pin(int fromTile, int toTile) {
+        mPinnedFrom = fromTile;
+        mPinnedTo = Math.min(toTile, fromTile + mMinSlots - 1);
+    }
+
+    void unpin() {
+        mPinnedFrom = NO_TILE;
+        mPinnedTo = NO_TILE;
+    }
+
+    private boolean isPinned(int tileIndex) {
+        return tileIndex != NO_TILE && tileIndex >= mPinnedFrom && tileIndex <= mPinnedTo;
+    }
+
+    /**
+     * 每帧绘制前调用，用于LRU计时
+     */
+    void nextFrame() {
+        mFrame++;
+    }
+
+    /**
+     * 获取一块位图，不存在时通过renderer渲染
+     *
+     * @param tileIndex 块下标
+     * @param data      波形数据
+     * @param barCount  需要绘制的波形个数
+     * @param renderer  渲染器
+     * @return 位图
+     */
+    Bitmap getTile(int tileIndex, IWaveData data, int barCount, WaveRenderer renderer) {
+        int slot = 0;
+        long oldest = Long.MAX_VALUE;
+        for (int i = 0; i < mTileIndexes.length; i++) {
+            if (mTileIndexes[i] == tileIndex) {
+                mLastUsed[i] = mFrame;
+                return mBitmaps[i];
+            }
+            if (isPinned(mTileIndexes[i])) continue;
+            // 优先使用空闲的块，其次是最久未使用的块
+            long used = mTileIndexes[i] == NO_TILE ? Long.MIN_VALUE : mLastUsed[i];
+            if (used < oldest) {
+                oldest = used;
+                slot = i;
+            }
+        }
+
+        Bitmap bitmap = mBitmaps[slot];
+        if (bitmap == null) {
+            bitmap = Bitmap.createBitmap(mTileWidth, mTileHeight, Bitmap.Config.ALPHA_8);
+            mBitmaps[slot] = bitmap;
+        } else {
+            bitmap.eraseColor(0);
+        }
+        mTileCanvas.setBitmap(bitmap);
+        int from = tileIndex * TILE_BARS;
+        renderer.renderTile(mTileCanvas, data, from, Math.min(from + TILE_BARS, barCount));
+        mTileCanvas.setBitmap(null);
+
+        mTileIndexes[slot] = tileIndex;
+        mLastUsed[slot] = mFrame;
+        return bitmap;
+    }
+
+    private void allocateSlots() {
+        long tileBytes = (long) mTileWidth * mTileHeight;
+        int slots = (int) Math.max(mMinSlots * 2L, mMaxBytes / tileBytes);
+        mTileIndexes = new int[slots];
+        mBitmaps = new Bitmap[slots];
+        mLastUsed = new long[slots];
+        mAllocatedBytes = mMaxBytes;
+        clear();
+    }
+}
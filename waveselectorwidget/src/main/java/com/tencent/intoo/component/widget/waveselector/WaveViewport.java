@@ -0,0 +1,120 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import com.tencent.intoo.component.widget.waveselector.WaveSelector.SizeConvertAdapter;
+
+/**
+ * 波形滚动视口，保存滚动位置和像素时间换算
+ * <p>
+ * 滚动位置用 double 像素，时间用 long 毫秒，像素换算成时间时取最近的毫秒，
+ * 24小时以内任意毫秒换算成像素再换算回来都是同一个值，选择时间不会在相邻毫秒间来回跳。
+ * Scroller 只能停在整数像素，seek 的目标位置单独保存，停在目标像素时还原为精确位置。
+ */
+final class WaveViewport {
+    private SizeConvertAdapter mAdapter;
+    private double mScrollX;
+    private double mMaxScrollX;
+    // seek 的精确目标位置，NaN 为没有目标
+    private double mTargetX = Double.NaN;
+
+    boolean isReady() {
+        return mAdapter != null;
+    }
+
+    SizeConvertAdapter getAdapter() {
+        return mAdapter;
+    }
+
+    /**
+     * 更换换算比例，滚动位置按选中的毫秒保持不变，不限制边界
+     */
+    void setAdapter(SizeConvertAdapter adapter) {
+        if (mAdapter != null && adapter != null) {
+            mScrollX = adapter.timeToPix(mAdapter.pixToTime(mScrollX));
+        }
+        mAdapter = adapter;
+        mTargetX = Double.NaN;
+    }
+
+    double getPixPerMs() {
+        return mAdapter.getPixPerMs();
+    }
+
+    double timeToPix(long time) {
+        return mAdapter.timeToPix(time);
+    }
+
+    long pixToTime(double pix) {
+        return mAdapter.pixToTime(pix);
+    }
+
+    double getScrollX() {
+        return mScrollX;
+    }
+
+    void setScrollX(double scrollX) {
+        mScrollX = scrollX;
+        mTargetX = Double.NaN;
+    }
+
+    void scrollBy(double dx) {
+        setScrollX(mScrollX + dx);
+    }
+
+    /**
+     * @return 取整后的滚动位置，用于 Scroller
+     */
+    int getScrollPix() {
+        return (int) Math.round(mScrollX);
+    }
+
+    /**
+     * @return 选择线对应的时间
+     */
+    long getScrollTime() {
+        return mAdapter.pixToTime(mScrollX);
+    }
+
+    double getMaxScrollX() {
+        return mMaxScrollX;
+    }
+
+    void setMaxScrollX(double maxScrollX) {
+        mMaxScrollX = maxScrollX;
+    }
+
+    boolean isAvailable(double scrollX) {
+        return scrollX <= mMaxScrollX && scrollX >= 0;
+    }
+
+    /**
+     * 滚动位置超出最大值时拉回
+     */
+    void clampScroll() {
+        if (mScrollX > mMaxScrollX) {
+            setScrollX(mMaxScrollX);
+        }
+    }
+
+    /**
+     * 设置 seek 的目标时间，超出范围时限制在边界
+     *
+     * @return 目标位置取整后的像素，交给 Scroller
+     */
+    int setTargetTime(long time) {
+        mTargetX = Math.max(0, Math.min(mMaxScrollX, mAdapter.timeToPix(time)));
+        return (int) Math.round(mTargetX);
+    }
+
+    /**
+     * 同步 Scroller 的位置，停在 seek 目标像素时使用精确的目标位置
+     *
+     * @param scrollerX Scroller 的整数位置
+     */
+    void syncScroller(int scrollerX) {
+        if (!Double.isNaN(mTargetX) && scrollerX == Math.round(mTargetX)) {
+            mScrollX = mTargetX;
+        } else {
+            mScrollX = scrollerX;
+        }
+    }
+}
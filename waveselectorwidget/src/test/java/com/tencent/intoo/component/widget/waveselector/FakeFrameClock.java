@@ -0,0 +1,71 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 手动推进的帧时钟，每次 {@link #nextFrame()} 前进一帧并执行这一帧的回调
+ */
+class FakeFrameClock implements IFrameClock {
+    static final long FRAME_MS = 16;
+
+    private final List<Runnable> mCallbacks = new ArrayList<>();
+    private long mTime;
+    private int mFrameCount;
+
+    @Override
+    public long uptimeMillis() {
+        return mTime;
+    }
+
+    @Override
+    public void postFrameCallback(Runnable callback) {
+        mCallbacks.add(callback);
+    }
+
+    @Override
+    public void removeFrameCallback(Runnable callback) {
+        while (mCallbacks.remove(callback)) {
+            // 与 removeCallbacks 一致，移除所有相同的回调
+        }
+    }
+
+    void nextFrame() {
+        nextFrame(FRAME_MS);
+    }
+
+    /**
+     * @param frameMs 距上一帧的时间，模拟掉帧
+     */
+    void nextFrame(long frameMs) {
+        mTime += frameMs;
+        mFrameCount++;
+        List<Runnable> callbacks = new ArrayList<>(mCallbacks);
+        mCallbacks.clear();
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+    }
+
+    /**
+     * 推进到没有回调为止
+     *
+     * @return 推进的帧数
+     */
+    int runUntilIdle(int maxFrames) {
+        int frames = 0;
+        while (!mCallbacks.isEmpty() && frames < maxFrames) {
+            nextFrame();
+            frames++;
+        }
+        return frames;
+    }
+
+    int getPendingCount() {
+        return mCallbacks.size();
+    }
+
+    int getFrameCount() {
+        return mFrameCount;
+    }
+}
@@ -0,0 +1,197 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 文件分页数据源的本地单测
+ */
+public class FileWaveDataSourceTest {
+
+    private static final int POINTS = FileWaveDataSource.PAGE_POINTS * 10 + 123;
+
+    @Test
+    public void getVolume_matchesFileContent() throws IOException {
+        File file = writeVolumes(POINTS, 0);
+        FileWaveDataSource source = new FileWaveDataSource(file);
+        try {
+            assertEquals(POINTS, source.size());
+            for (int i = 0; i < POINTS; i += 7) {
+                assertEquals(expected(i), source.getVolume(i));
+            }
+            assertEquals(expected(POINTS - 1), source.getVolume(POINTS - 1));
+        } finally {
+            source.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void dataOffset_skipsHeader() throws IOException {
+        File file = writeVolumes(1000, 16);
+        FileWaveDataSource source = new FileWaveDataSource(file, 16, 1000, 2, null);
+        try {
+            assertEquals(1000, source.size());
+            assertEquals(expected(0), source.getVolume(0));
+            assertEquals(expected(999), source.getVolume(999));
+        } finally {
+            source.close();
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void count_largerThanFileFails() throws IOException {
+        File file = writeVolumes(100, 0);
+        try {
+            new FileWaveDataSource(file, 0, 101, 2, null);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void pageCache_bounded() throws IOException {
+        File file = writeVolumes(POINTS, 0);
+        FileWaveDataSource source = new FileWaveDataSource(file, 0, -1, 3, null);
+        try {
+            for (int i = 0; i < POINTS; i += 100) {
+                assertEquals(expected(i), source.getVolume(i));
+                assertTrue(source.getResidentPageCount() <= 3);
+            }
+            // 顺序读取后留下的是最后几页
+            assertTrue(source.isPageLoaded(10));
+            assertFalse(source.isPageLoaded(0));
+        } finally {
+            source.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void isLoaded_checksEveryPageInRange() throws IOException {
+        File file = writeVolumes(POINTS, 0);
+        FileWaveDataSource source = new FileWaveDataSource(file, 0, -1, 4, null);
+        int page = FileWaveDataSource.PAGE_POINTS;
+        try {
+            assertFalse(source.isLoaded(page + 10, page + 20));
+            source.prefetch(page + 10, page * 3 - 1);
+            assertTrue(source.isLoaded(page, page * 3));
+            assertFalse(source.isLoaded(page, page * 3 + 1));
+            // 超出范围的部分忽略
+            assertTrue(source.isLoaded(POINTS, POINTS + 100));
+            assertTrue(source.isLoaded(5, 5));
+        } finally {
+            source.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void prefetch_loadsPagesOnExecutor() throws IOException {
+        final List<Runnable> tasks = new ArrayList<>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        };
+        File file = writeVolumes(POINTS, 0);
+        FileWaveDataSource source = new FileWaveDataSource(file, 0, -1, 4, executor);
+        try {
+            source.prefetch(FileWaveDataSource.PAGE_POINTS * 2, FileWaveDataSource.PAGE_POINTS * 4);
+            // 同一页不重复提交
+            source.prefetch(FileWaveDataSource.PAGE_POINTS * 2, FileWaveDataSource.PAGE_POINTS * 4);
+            assertEquals(2, tasks.size());
+            assertFalse(source.isPageLoaded(2));
+
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            assertTrue(source.isPageLoaded(2));
+            assertTrue(source.isPageLoaded(3));
+            assertEquals(2, source.getResidentPageCount());
+            assertEquals(expected(FileWaveDataSource.PAGE_POINTS * 3 + 5), source.getVolume(FileWaveDataSource.PAGE_POINTS * 3 + 5));
+            assertEquals(2, source.getResidentPageCount());
+        } finally {
+            source.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void failedPage_readOncePerPrefetch() throws IOException {
+        final int[] errors = new int[1];
+        WaveLog.setLogger(new WaveLog.ILogger() {
+            @Override
+            public void log(int priority, String tag, String msg) {
+                errors[0]++;
+            }
+        });
+        File file = writeVolumes(POINTS, 0);
+        FileWaveDataSource source = new FileWaveDataSource(file, 0, -1, 4, null);
+        int page = FileWaveDataSource.PAGE_POINTS;
+        try {
+            // 打开后文件被截断，读取失败
+            writeVolumes(file, 0, 0);
+            for (int i = page; i < page * 2; i++) {
+                assertEquals(0, source.getVolume(i));
+            }
+            assertEquals(1, errors[0]);
+            assertTrue(source.isLoaded(page, page * 2));
+            assertFalse(source.isPageLoaded(1));
+            assertEquals(0, source.getResidentPageCount());
+
+            // 预取时重试一次
+            source.prefetch(page, page * 2);
+            source.getVolume(page + 5);
+            assertEquals(2, errors[0]);
+
+            // 文件恢复后预取重新读取
+            writeVolumes(file, POINTS, 0);
+            source.prefetch(page, page * 2);
+            assertTrue(source.isPageLoaded(1));
+            assertEquals(expected(page + 5), source.getVolume(page + 5));
+            assertEquals(2, errors[0]);
+        } finally {
+            WaveLog.setLogger(null);
+            source.close();
+            file.delete();
+        }
+    }
+
+    private static int expected(int index) {
+        return (index * 7919 + 13) & ShortWaveData.MAX_VOLUME;
+    }
+
+    private static File writeVolumes(int count, int headerBytes) throws IOException {
+        File file = File.createTempFile("wave", ".bin");
+        writeVolumes(file, count, headerBytes);
+        return file;
+    }
+
+    private static void writeVolumes(File file, int count, int headerBytes) throws IOException {
+        byte[] bytes = new byte[headerBytes + count * 2];
+        for (int i = 0; i < count; i++) {
+            int volume = expected(i);
+            bytes[headerBytes + i * 2] = (byte) volume;
+            bytes[headerBytes + i * 2 + 1] = (byte) (volume >> 8);
+        }
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * fling 停止判定的本地单测，由手动推进的帧时钟驱动
+ */
+public class FlingSettlerTest {
+
+    private FakeFrameClock mClock;
+    private FakeScroller mScroller;
+    private final List<Integer> mFrames = new ArrayList<>();
+    private final List<Integer> mSettled = new ArrayList<>();
+    private FlingSettler mSettler;
+
+    @Before
+    public void setUp() {
+        mClock = new FakeFrameClock();
+        mScroller = new FakeScroller(mClock);
+        mSettler = new FlingSettler(mClock, mScroller, new FlingSettler.ICallback() {
+            @Override
+            public void onScrollFrame(int x) {
+                mFrames.add(x);
+            }
+
+            @Override
+            public void onSettled(int finalX) {
+                mSettled.add(finalX);
+            }
+        });
+    }
+
+    @Test
+    public void fling_settlesOnceOnLastFrame() {
+        mScroller.fling(100, 2500, 400);
+        mSettler.start();
+        // 最终位置在开始时就确定
+        assertEquals(2500, mSettler.getTargetX());
+        assertTrue(mSettler.isPending());
+
+        int frames = mClock.runUntilIdle(1000);
+
+        assertEquals(1, mSettled.size());
+        assertEquals(2500, (int) mSettled.get(0));
+        // 到达终点的那一帧回调，不多等一帧
+        assertEquals((400 + FakeFrameClock.FRAME_MS - 1) / FakeFrameClock.FRAME_MS, frames);
+        assertEquals(2500, (int) mFrames.get(mFrames.size() - 1));
+        assertFalse(mSettler.isPending());
+
+        mClock.nextFrame();
+        assertEquals(1, mSettled.size());
+    }
+
+    @Test
+    public void fling_jankyFramesStillSettleOnce() {
+        mScroller.fling(0, 800, 300);
+        mSettler.start();
+
+        mClock.nextFrame(5);
+        mClock.nextFrame(250);
+        assertTrue(mSettled.isEmpty());
+        // 一帧跳过剩余时间
+        mClock.nextFrame(1000);
+
+        assertEquals(1, mSettled.size());
+        assertEquals(800, (int) mSettled.get(0));
+        assertEquals(0, mClock.getPendingCount());
+    }
+
+    @Test
+    public void start_alreadyFinishedSettlesImmediately() {
+        mScroller.jumpTo(300);
+        mSettler.start();
+
+        assertEquals(1, mSettled.size());
+        assertEquals(300, (int) mSettled.get(0));
+        assertEquals(0, mClock.getPendingCount());
+        assertTrue(mFrames.isEmpty());
+    }
+
+    @Test
+    public void cancel_newGestureSuppressesSettle() {
+        mScroller.fling(0, 1000, 400);
+        mSettler.start();
+        mClock.nextFrame();
+        mClock.nextFrame();
+
+        mScroller.abort();
+        mSettler.cancel();
+        mClock.runUntilIdle(100);
+        assertTrue(mSettled.isEmpty());
+
+        // 之后的 fling 正常回调
+        mScroller.fling(mScroller.getCurrX(), 50, 200);
+        mSettler.start();
+        mClock.runUntilIdle(100);
+        assertEquals(1, mSettled.size());
+        assertEquals(50, (int) mSettled.get(0));
+    }
+
+    @Test
+    public void start_retargetMidFlingSettlesOnceAtNewTarget() {
+        mScroller.fling(0, 1000, 400);
+        mSettler.start();
+        mClock.nextFrame();
+
+        // seek 修改最终位置后重新开始
+        mScroller.setFinalX(600);
+        mSettler.start();
+        assertEquals(600, mSettler.getTargetX());
+        assertEquals(1, mClock.getPendingCount());
+
+        mClock.runUntilIdle(100);
+        assertEquals(1, mSettled.size());
+        assertEquals(600, (int) mSettled.get(0));
+    }
+
+    @Test
+    public void scrollFrame_onlyWhenPositionChanges() {
+        mScroller.fling(0, 3, 160);
+        mSettler.start();
+        mClock.runUntilIdle(100);
+
+        for (int i = 1; i < mFrames.size(); i++) {
+            assertTrue(mFrames.get(i) != (int) mFrames.get(i - 1));
+        }
+        assertEquals(3, (int) mFrames.get(mFrames.size() - 1));
+        assertEquals(1, mSettled.size());
+    }
+
+    /////////////////////////////////////////////////////////
+
+    /**
+     * 按帧时钟减速运动的 Scroller
+     */
+    private static class FakeScroller implements FlingSettler.IScroller {
+        private final IFrameClock mClock;
+        private int mStartX;
+        private int mCurrX;
+        private int mFinalX;
+        private long mStartTime;
+        private long mDuration;
+        private boolean mFinished = true;
+
+        FakeScroller(IFrameClock clock) {
+            mClock = clock;
+        }
+
+        void fling(int startX, int finalX, long duration) {
+            mStartX = startX;
+            mCurrX = startX;
+            mFinalX = finalX;
+            mStartTime = mClock.uptimeMillis();
+            mDuration = duration;
+            mFinished = false;
+        }
+
+        void jumpTo(int x) {
+            mCurrX = x;
+            mFinalX = x;
+            mFinished = true;
+        }
+
+        void setFinalX(int finalX) {
+            mFinalX = finalX;
+            mFinished = false;
+        }
+
+        void abort() {
+            mFinished = true;
+        }
+
+        @Override
+        public boolean computeScrollOffset() {
+            if (mFinished) return false;
+            long passed = mClock.uptimeMillis() - mStartTime;
+            if (passed < mDuration) {
+                float t = 1 - (float) passed / mDuration;
+                mCurrX = mStartX + Math.round((mFinalX - mStartX) * (1 - t * t));
+            } else {
+                mCurrX = mFinalX;
+                mFinished = true;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return mFinished;
+        }
+
+        @Override
+        public int getCurrX() {
+            return mCurrX;
+        }
+
+        @Override
+        public int getFinalX() {
+            return mFinalX;
+        }
+    }
+}
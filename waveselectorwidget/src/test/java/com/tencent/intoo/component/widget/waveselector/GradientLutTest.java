@@ -0,0 +1,55 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 渐变色查找表的本地单测
+ */
+public class GradientLutTest {
+
+    private static final int RED = 0xffff0000;
+    private static final int GREEN = 0xff00ff00;
+    private static final int BLUE = 0xff0000ff;
+
+    @Test
+    public void twoStops_matchEvaluate() {
+        GradientLut lut = new GradientLut();
+        lut.set(new int[]{RED, BLUE});
+
+        assertEquals(RED, lut.getColor(0));
+        assertEquals(BLUE, lut.getColor(1));
+        for (int i = 0; i < GradientLut.SIZE; i++) {
+            float fraction = i * 1.0f / (GradientLut.SIZE - 1);
+            assertEquals(GradientLut.evaluate(fraction, RED, BLUE), lut.getColor(fraction));
+        }
+    }
+
+    @Test
+    public void multiStops_passThroughEachColor() {
+        GradientLut lut = new GradientLut();
+        lut.set(new int[]{RED, GREEN, BLUE});
+
+        assertEquals(RED, lut.getColor(0));
+        assertEquals(GREEN, lut.getColor(0.5f));
+        assertEquals(BLUE, lut.getColor(1));
+        assertEquals(GradientLut.evaluate(0.5f, RED, GREEN), lut.getColor(0.25f));
+    }
+
+    @Test
+    public void outOfRange_clampsToEnds() {
+        GradientLut lut = new GradientLut();
+        lut.set(new int[]{RED, BLUE});
+
+        assertEquals(RED, lut.getColor(-3));
+        assertEquals(BLUE, lut.getColor(7));
+        assertEquals(RED, lut.getColor(Float.NaN));
+    }
+
+    @Test
+    public void evaluate_linearSpaceMidpoint() {
+        // 与 ArgbEvaluator 一致，在线性空间插值
+        assertEquals(0xffbababa, GradientLut.evaluate(0.5f, 0xff000000, 0xffffffff));
+    }
+}
@@ -0,0 +1,244 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 回调分发的本地单测，由手动推进的帧时钟和手动执行的 executor 驱动
+ */
+public class ListenerDispatcherTest {
+
+    private FakeFrameClock mClock;
+    private RecordListener mListener;
+    private ListenerDispatcher mDispatcher;
+
+    @Before
+    public void setUp() {
+        mClock = new FakeFrameClock();
+        mListener = new RecordListener();
+        mDispatcher = new ListenerDispatcher(mClock);
+        mDispatcher.setListener(mListener);
+    }
+
+    @Test
+    public void noThrottle_deliversSynchronously() {
+        mDispatcher.dispatchReady();
+        mDispatcher.dispatchChanging(10);
+        mDispatcher.dispatchChanging(10);
+        mDispatcher.dispatchSelect(20);
+        mDispatcher.dispatchLimit();
+
+        assertEquals(list("ready", "changing:10", "changing:10", "select:20", "limit"), mListener.events);
+        assertEquals(0, mClock.getPendingCount());
+    }
+
+    @Test
+    public void interval_deliversLatestValue() {
+        mDispatcher.setChangingThrottle(50, 0);
+
+        mDispatcher.dispatchChanging(1);
+        // 间隔不够的都被推迟，送达时取最新值
+        mDispatcher.dispatchChanging(2);
+        mClock.nextFrame();
+        mDispatcher.dispatchChanging(3);
+        mClock.nextFrame();
+        mDispatcher.dispatchChanging(4);
+        assertEquals(list("changing:1"), mListener.events);
+
+        mClock.runUntilIdle(10);
+        assertEquals(list("changing:1", "changing:4"), mListener.events);
+        assertTrue(mClock.uptimeMillis() >= 50);
+    }
+
+    @Test
+    public void delta_filtersSmallChanges() {
+        mDispatcher.setChangingThrottle(0, 100);
+
+        mDispatcher.dispatchChanging(1000);
+        mDispatcher.dispatchChanging(1050);
+        mDispatcher.dispatchChanging(950);
+        mDispatcher.dispatchChanging(1100);
+        mDispatcher.dispatchChanging(1150);
+
+        assertEquals(list("changing:1000", "changing:1100"), mListener.events);
+    }
+
+    @Test
+    public void select_dropsPendingChanging() {
+        mDispatcher.setChangingThrottle(50, 0);
+
+        mDispatcher.dispatchChanging(1);
+        mDispatcher.dispatchChanging(2);
+        mDispatcher.dispatchSelect(3);
+        mClock.runUntilIdle(10);
+        assertEquals(list("changing:1", "select:3"), mListener.events);
+
+        // 下一次滑动的第一个 onChanging 立即送达
+        mDispatcher.dispatchChanging(4);
+        assertEquals(list("changing:1", "select:3", "changing:4"), mListener.events);
+    }
+
+    @Test
+    public void executor_coalescesQueuedChanging() {
+        ManualExecutor executor = new ManualExecutor();
+        mDispatcher.setExecutor(executor);
+
+        mDispatcher.dispatchReady();
+        for (int i = 1; i <= 100; i++) {
+            mDispatcher.dispatchChanging(i);
+        }
+        mDispatcher.dispatchSelect(200);
+        mDispatcher.dispatchChanging(201);
+        mDispatcher.dispatchChanging(202);
+        assertTrue(mListener.events.isEmpty());
+
+        executor.runAll();
+        assertEquals(list("ready", "changing:100", "select:200", "changing:202"), mListener.events);
+    }
+
+    @Test
+    public void executor_exceptionDoesNotBlockLaterCallbacks() {
+        ManualExecutor executor = new ManualExecutor();
+        mDispatcher.setExecutor(executor);
+        mListener.throwOn = "select:2";
+
+        mDispatcher.dispatchChanging(1);
+        mDispatcher.dispatchSelect(2);
+        mDispatcher.dispatchLimit();
+
+        assertEquals(1, executor.runAll());
+        assertEquals(list("changing:1", "select:2", "limit"), mListener.events);
+
+        mDispatcher.dispatchChanging(3);
+        executor.runAll();
+        assertEquals(list("changing:1", "select:2", "limit", "changing:3"), mListener.events);
+    }
+
+    @Test
+    public void executor_threadPoolKeepsOrder() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            mDispatcher.setExecutor(pool);
+            for (int i = 0; i < 1000; i++) {
+                mDispatcher.dispatchSelect(i);
+            }
+            final CountDownLatch latch = new CountDownLatch(1);
+            mListener.onReady = latch;
+            mDispatcher.dispatchReady();
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+            List<String> events = mListener.snapshot();
+            assertEquals(1001, events.size());
+            for (int i = 0; i < 1000; i++) {
+                assertEquals("select:" + i, events.get(i));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void cancel_dropsUndelivered() {
+        ManualExecutor executor = new ManualExecutor();
+        mDispatcher.setExecutor(executor);
+        mDispatcher.setChangingThrottle(50, 0);
+
+        mDispatcher.dispatchChanging(1);
+        mDispatcher.dispatchChanging(2);
+        mDispatcher.dispatchSelect(3);
+        mDispatcher.cancel();
+
+        executor.runAll();
+        mClock.runUntilIdle(10);
+        assertTrue(mListener.events.isEmpty());
+        assertEquals(0, mClock.getPendingCount());
+    }
+
+    private static List<String> list(String... events) {
+        List<String> list = new ArrayList<>();
+        Collections.addAll(list, events);
+        return list;
+    }
+
+    /////////////////////////////////////////////////////////
+    private static class RecordListener implements WaveSelector.IWaveSelectorListener {
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        String throwOn;
+        CountDownLatch onReady;
+
+        @Override
+        public void onChanging(long timeStart) {
+            record("changing:" + timeStart);
+        }
+
+        @Override
+        public void onSelect(long timeStart) {
+            record("select:" + timeStart);
+        }
+
+        @Override
+        public void onReady() {
+            record("ready");
+            if (onReady != null) {
+                onReady.countDown();
+            }
+        }
+
+        @Override
+        public void onLimit() {
+            record("limit");
+        }
+
+        List<String> snapshot() {
+            synchronized (events) {
+                return new ArrayList<>(events);
+            }
+        }
+
+        private void record(String event) {
+            events.add(event);
+            if (event.equals(throwOn)) {
+                throw new IllegalStateException(event);
+            }
+        }
+    }
+
+    /////////////////////////////////////////////////////////
+    private static class ManualExecutor implements Executor {
+        private final ArrayDeque<Runnable> mTasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            mTasks.add(command);
+        }
+
+        /**
+         * @return 抛出异常的任务数
+         */
+        int runAll() {
+            int errors = 0;
+            Runnable task;
+            while ((task = mTasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    errors++;
+                }
+            }
+            return errors;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 波形缓存文件读写的本地单测
+ */
+public class MappedWaveDataTest {
+
+    private static final int POINTS = 10 * 60 * 43;
+
+    @Test
+    public void roundTrip() throws IOException {
+        File file = writeCache(POINTS);
+        MappedWaveData data = MappedWaveData.open(file);
+        try {
+            assertEquals(POINTS, data.size());
+            assertEquals(WaveCacheFormat.VERSION, data.getVersion());
+            assertEquals(44100, data.getSampleRate());
+            assertEquals(24, data.getSampleStep());
+            for (int i = 0; i < POINTS; i++) {
+                assertEquals(expected(i), data.getVolume(i));
+            }
+            assertEquals(WaveCacheFormat.HEADER_SIZE + POINTS * 2, file.length());
+        } finally {
+            data.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void writer_receivesExtractorOutput() throws IOException {
+        File file = File.createTempFile("wave", ".wavs");
+        WaveCacheWriter writer = new WaveCacheWriter(file, 44100, 1);
+        PcmWaveExtractor extractor = new PcmWaveExtractor(1, 1, PcmWaveExtractor.MODE_PEAK, writer);
+        short[] pcm = new short[PcmWaveExtractor.SAMPLES_PER_FRAME * 3];
+        pcm[10] = 1000;
+        pcm[PcmWaveExtractor.SAMPLES_PER_FRAME * 2] = -2000;
+        extractor.feed(pcm, 0, pcm.length);
+        extractor.flush();
+        writer.finish();
+        writer.close();
+
+        MappedWaveData data = MappedWaveData.open(file);
+        try {
+            assertEquals(3, data.size());
+            assertEquals(2000, data.getVolume(0));
+            assertEquals(0, data.getVolume(1));
+            assertEquals(4000, data.getVolume(2));
+        } finally {
+            data.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void close_withoutFinishLeavesNoFile() throws IOException {
+        File file = File.createTempFile("wave", ".wavs");
+        file.delete();
+        WaveCacheWriter writer = new WaveCacheWriter(file, 44100, 24);
+        writer.append(1);
+        writer.close();
+        assertFalse(file.exists());
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void corruption_detected() throws IOException {
+        // magic
+        assertCorrupt(0, (byte) 'X');
+        // 版本号变化同时破坏头部CRC
+        assertCorrupt(WaveCacheFormat.OFFSET_VERSION, (byte) 9);
+        // 点数
+        assertCorrupt(WaveCacheFormat.OFFSET_POINT_COUNT, (byte) 1);
+        // 数据
+        assertCorrupt(WaveCacheFormat.HEADER_SIZE + 100, (byte) 0x5A);
+    }
+
+    @Test
+    public void truncated_detected() throws IOException {
+        File file = writeCache(1000);
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(file.length() - 2);
+        raf.close();
+        assertOpenFails(file);
+
+        raf = new RandomAccessFile(file, "rw");
+        raf.setLength(10);
+        raf.close();
+        assertOpenFails(file);
+        file.delete();
+    }
+
+    @Test
+    public void verifyData_canBeSkipped() throws IOException {
+        File file = writeCache(1000);
+        patch(file, WaveCacheFormat.HEADER_SIZE + 10, (byte) 0x5A);
+        MappedWaveData data = MappedWaveData.open(file, false);
+        try {
+            assertEquals(1000, data.size());
+        } finally {
+            data.close();
+            file.delete();
+        }
+    }
+
+    private static void assertCorrupt(int offset, byte value) throws IOException {
+        File file = writeCache(1000);
+        patch(file, offset, value);
+        assertOpenFails(file);
+        file.delete();
+    }
+
+    private static void assertOpenFails(File file) throws IOException {
+        try {
+            MappedWaveData.open(file).close();
+            fail("corrupted cache opened.");
+        } catch (CorruptWaveCacheException e) {
+            assertTrue(e.getMessage() != null);
+        }
+    }
+
+    private static void patch(File file, int offset, byte value) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(offset);
+            byte old = raf.readByte();
+            raf.seek(offset);
+            raf.writeByte(old == value ? value + 1 : value);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static int expected(int index) {
+        return (index * 7919 + 13) & ShortWaveData.MAX_VOLUME;
+    }
+
+    private static File writeCache(int count) throws IOException {
+        File file = File.createTempFile("wave", ".wavs");
+        ShortWaveData data = new ShortWaveData();
+        for (int i = 0; i < count; i++) {
+            data.append(expected(i));
+        }
+        WaveCacheWriter.write(file, 44100, 24, data);
+        return file;
+    }
+}
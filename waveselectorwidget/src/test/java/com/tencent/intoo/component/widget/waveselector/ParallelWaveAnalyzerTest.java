@@ -0,0 +1,90 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 多线程波形提取的本地单测，以 {@link PcmWaveExtractor} 的顺序结果为准
+ */
+public class ParallelWaveAnalyzerTest {
+
+    private final ForkJoinPool mPool = new ForkJoinPool(4);
+
+    @Test
+    public void matchesSequential_peakAndRms() {
+        Random random = new Random(1);
+        int[] lengths = {0, 1, 1023, 1024 * 24, 1024 * 24 + 1, 1024 * 24 * 37 + 555};
+        for (int channels = 1; channels <= 2; channels++) {
+            for (int mode = PcmWaveExtractor.MODE_PEAK; mode <= PcmWaveExtractor.MODE_RMS; mode++) {
+                for (int length : lengths) {
+                    short[] pcm = randomPcm(random, length);
+                    int[] expected = sequential(pcm, 0, length, channels, 24, mode);
+                    int[] actual = new ParallelWaveAnalyzer(channels, 24, mode, mPool).analyze(pcm, 0, length);
+                    assertArrayEquals("channels " + channels + ", mode " + mode + ", length " + length, expected, actual);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void matchesSequential_extremeSamples() {
+        short[] pcm = new short[1024 * 5 + 7];
+        Arrays.fill(pcm, Short.MIN_VALUE);
+        for (int mode = PcmWaveExtractor.MODE_PEAK; mode <= PcmWaveExtractor.MODE_RMS; mode++) {
+            int[] expected = sequential(pcm, 0, pcm.length, 1, 1, mode);
+            int[] actual = new ParallelWaveAnalyzer(1, 1, mode, mPool).analyze(pcm, 0, pcm.length);
+            assertArrayEquals(expected, actual);
+            assertEquals(ShortWaveData.MAX_VOLUME, actual[0]);
+        }
+    }
+
+    @Test
+    public void directBuffer_withOffset() {
+        Random random = new Random(2);
+        short[] pcm = randomPcm(random, 1024 * 12 + 100);
+        ShortBuffer buffer = ByteBuffer.allocateDirect(pcm.length * 2).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+        buffer.put(pcm);
+        buffer.position(100);
+        buffer.limit(pcm.length - 3);
+
+        int[] expected = sequential(pcm, 100, pcm.length - 103, 2, 2, PcmWaveExtractor.MODE_RMS);
+        int[] actual = new ParallelWaveAnalyzer(2, 2, PcmWaveExtractor.MODE_RMS, mPool).analyze(buffer);
+        assertArrayEquals(expected, actual);
+        // 不改变位置
+        assertEquals(100, buffer.position());
+    }
+
+    private static int[] sequential(short[] pcm, int offset, int length, int channels, int step, int mode) {
+        final ShortWaveData out = new ShortWaveData();
+        PcmWaveExtractor extractor = new PcmWaveExtractor(channels, step, mode, new PcmWaveExtractor.IVolumeReceiver() {
+            @Override
+            public void onVolume(int index, int volume) {
+                out.append(volume);
+            }
+        });
+        extractor.feed(pcm, offset, length);
+        extractor.flush();
+        int[] volumes = new int[out.size()];
+        for (int i = 0; i < volumes.length; i++) {
+            volumes[i] = out.getVolume(i);
+        }
+        return volumes;
+    }
+
+    private static short[] randomPcm(Random random, int length) {
+        short[] pcm = new short[length];
+        for (int i = 0; i < length; i++) {
+            pcm[i] = (short) random.nextInt();
+        }
+        return pcm;
+    }
+}
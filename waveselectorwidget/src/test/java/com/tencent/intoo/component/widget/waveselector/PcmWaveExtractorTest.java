@@ -0,0 +1,116 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 流式PCM波形提取的本地单测
+ */
+public class PcmWaveExtractorTest {
+
+    @Test
+    public void sampleStep_fromCalcSampleStep() {
+        PcmWaveExtractor extractor = new PcmWaveExtractor(44100, 2, 72, 40, PcmWaveExtractor.MODE_PEAK, new Collector());
+        assertEquals(WaveSelector.calcSampleStep(44100, 72, 40), extractor.getSampleStep());
+        assertEquals(24, extractor.getSampleStep());
+    }
+
+    @Test
+    public void peak_monoConstant() {
+        Collector collector = new Collector();
+        PcmWaveExtractor extractor = new PcmWaveExtractor(1, 2, PcmWaveExtractor.MODE_PEAK, collector);
+        short[] samples = new short[PcmWaveExtractor.SAMPLES_PER_FRAME * 2 * 3];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) (i % 2 == 0 ? 1000 : -2000);
+        }
+        extractor.feed(samples, 0, samples.length);
+
+        assertEquals(3, collector.volumes.size());
+        for (int volume : collector.volumes) {
+            assertEquals(4000, volume);
+        }
+    }
+
+    @Test
+    public void rms_clampedToMaxVolume() {
+        Collector collector = new Collector();
+        PcmWaveExtractor extractor = new PcmWaveExtractor(1, 1, PcmWaveExtractor.MODE_RMS, collector);
+        short[] samples = new short[PcmWaveExtractor.SAMPLES_PER_FRAME];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = Short.MIN_VALUE;
+        }
+        extractor.feed(samples, 0, samples.length);
+
+        assertEquals(1, collector.volumes.size());
+        assertEquals(ShortWaveData.MAX_VOLUME, (int) collector.volumes.get(0));
+    }
+
+    @Test
+    public void stereo_pointCoversFramesOfAllChannels() {
+        Collector collector = new Collector();
+        PcmWaveExtractor extractor = new PcmWaveExtractor(2, 1, PcmWaveExtractor.MODE_PEAK, collector);
+        // 左声道静音，右声道递增，每个点 1024 帧 = 2048 个交织采样
+        short[] samples = new short[PcmWaveExtractor.SAMPLES_PER_FRAME * 2 * 2];
+        for (int frame = 0; frame < samples.length / 2; frame++) {
+            samples[frame * 2 + 1] = (short) frame;
+        }
+        extractor.feed(samples, 0, samples.length);
+
+        assertEquals(2, collector.volumes.size());
+        assertEquals(1023 * 2, (int) collector.volumes.get(0));
+        assertEquals(2047 * 2, (int) collector.volumes.get(1));
+    }
+
+    @Test
+    public void feed_chunkBoundariesDoNotChangeOutput() {
+        byte[] pcm = createPcm(PcmWaveExtractor.SAMPLES_PER_FRAME * 2 * 7 + 333);
+
+        Collector whole = new Collector();
+        PcmWaveExtractor extractor = new PcmWaveExtractor(2, 3, PcmWaveExtractor.MODE_RMS, whole);
+        extractor.feed(pcm, 0, pcm.length);
+        extractor.flush();
+
+        Collector chunked = new Collector();
+        extractor = new PcmWaveExtractor(2, 3, PcmWaveExtractor.MODE_RMS, chunked);
+        int pos = 0;
+        int chunk = 1;
+        while (pos < pcm.length) {
+            int length = Math.min(chunk, pcm.length - pos);
+            extractor.feed(pcm, pos, length);
+            pos += length;
+            chunk = chunk * 3 + 1;// 奇数长度，覆盖跨块的半个采样
+        }
+        extractor.flush();
+
+        assertEquals(whole.volumes, chunked.volumes);
+        assertEquals(3, whole.volumes.size());
+        for (int i = 0; i < whole.volumes.size(); i++) {
+            assertEquals(i, (int) whole.indexes.get(i));
+        }
+    }
+
+    private static byte[] createPcm(int samples) {
+        byte[] pcm = new byte[samples * 2];
+        for (int i = 0; i < samples; i++) {
+            short sample = (short) (Math.sin(i / 50.0) * 20000);
+            pcm[i * 2] = (byte) sample;
+            pcm[i * 2 + 1] = (byte) (sample >> 8);
+        }
+        return pcm;
+    }
+
+    private static class Collector implements PcmWaveExtractor.IVolumeReceiver {
+        final List<Integer> indexes = new ArrayList<>();
+        final List<Integer> volumes = new ArrayList<>();
+
+        @Override
+        public void onVolume(int index, int volume) {
+            indexes.add(index);
+            volumes.add(volume);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 播放位置插值的本地单测
+ */
+public class PlaybackInterpolatorTest {
+
+    @Test
+    public void update_interpolatesBetweenReports() {
+        PlaybackInterpolator interpolator = new PlaybackInterpolator();
+        assertEquals(1000, interpolator.update(1000, 50));
+        assertEquals(1016, interpolator.update(1000, 66));
+        assertEquals(1033, interpolator.update(1000, 83));
+        // 播放器更新后以新位置为准
+        assertEquals(1040, interpolator.update(1040, 90));
+        assertEquals(1056, interpolator.update(1040, 106));
+    }
+
+    @Test
+    public void update_neverStepsBackSlightly() {
+        PlaybackInterpolator interpolator = new PlaybackInterpolator();
+        interpolator.update(1000, 0);
+        assertEquals(1050, interpolator.update(1000, 50));
+        // 播放器位置比推算值略小，保持不动直到追上
+        assertEquals(1050, interpolator.update(1045, 51));
+        assertEquals(1050, interpolator.update(1045, 53));
+        assertEquals(1055, interpolator.update(1045, 61));
+    }
+
+    @Test
+    public void update_followsSeekBackward() {
+        PlaybackInterpolator interpolator = new PlaybackInterpolator();
+        interpolator.update(60000, 0);
+        assertEquals(60100, interpolator.update(60000, 100));
+        assertEquals(3000, interpolator.update(3000, 116));
+    }
+
+    @Test
+    public void update_pauseSnapsBackToReported() {
+        PlaybackInterpolator interpolator = new PlaybackInterpolator();
+        long time = play(interpolator, 0, 1000, 40);
+        long paused = 1000 + time;
+
+        // 暂停后最多推算一个更新间隔，之后回到播放器的位置
+        for (long t = time; t <= time + 80; t += 16) {
+            long position = interpolator.update(paused, t);
+            assertTrue(position >= paused);
+            assertTrue(position <= paused + 40);
+        }
+        assertEquals(paused, interpolator.update(paused, time + 96));
+        assertEquals(paused, interpolator.update(paused, time + 10000));
+
+        interpolator.reset();
+        assertEquals(1000, interpolator.update(1000, 20016));
+    }
+
+    @Test
+    public void update_resumeFollowsReportedWithoutFreezing() {
+        PlaybackInterpolator interpolator = new PlaybackInterpolator();
+        long time = play(interpolator, 0, 1000, 40);
+        long paused = 1000 + time;
+        interpolator.update(paused, time + 30);
+        assertEquals(paused, interpolator.update(paused, time + 5000));
+
+        // 恢复后立即跟随播放器，不停在暂停前推算的位置
+        long resume = time + 10000;
+        assertEquals(paused + 16, interpolator.update(paused + 16, resume));
+        assertEquals(paused + 32, interpolator.update(paused + 16, resume + 16));
+
+        // 暂停的时长不计入更新间隔，再次暂停同样很快回到播放器的位置
+        long next = play(interpolator, resume + 40, paused + 56, 40);
+        long pausedAgain = paused + 56 + next - (resume + 40);
+        long position = 0;
+        for (long t = next; t <= next + 96; t += 16) {
+            position = interpolator.update(pausedAgain, t);
+        }
+        assertEquals(pausedAgain, position);
+    }
+
+    /**
+     * 播放器每 interval 毫秒更新一次，播放一秒
+     *
+     * @return 下一次更新的时间
+     */
+    private static long play(PlaybackInterpolator interpolator, long start, long position, long interval) {
+        long time = start;
+        for (; time < start + 1000; time += interval) {
+            assertEquals(position + time - start, interpolator.update(position + time - start, time));
+        }
+        return time;
+    }
+}
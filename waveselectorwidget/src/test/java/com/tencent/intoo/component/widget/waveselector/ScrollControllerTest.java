@@ -0,0 +1,189 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * fling 和 seek 调度的本地单测，回调中按控件的方式同步视口，由手动推进的帧时钟驱动
+ */
+public class ScrollControllerTest {
+
+    // 1080像素对应40秒，缩小1024倍，几十天的时间也在 int 像素以内
+    private static final double PIX_PER_MS = 1080.0 / 40000 / 1024;
+
+    private FakeFrameClock mClock;
+    private WaveViewport mViewport;
+    private LinearFlingScroller mFling;
+    private final List<Integer> mFrames = new ArrayList<>();
+    // 每次停止时视口对应的时间，相当于控件回调的 onSelect
+    private final List<Long> mSelected = new ArrayList<>();
+    private ScrollController mController;
+
+    @Before
+    public void setUp() {
+        mClock = new FakeFrameClock();
+        mViewport = new WaveViewport();
+        mViewport.setAdapter(new WaveSelector.SizeConvertAdapter(PIX_PER_MS));
+        mViewport.setMaxScrollX(Integer.MAX_VALUE);
+        mFling = new LinearFlingScroller(mClock);
+        mController = new ScrollController(mClock, mViewport, mFling, new ScrollController.ICallback() {
+            @Override
+            public void onScrollFrame(int x) {
+                mFrames.add(x);
+                mViewport.syncScroller(x);
+            }
+
+            @Override
+            public void onScrollSettled(int finalX) {
+                mViewport.syncScroller(finalX);
+                mSelected.add(mViewport.getScrollTime());
+            }
+        });
+    }
+
+    @Test
+    public void seekTo_zeroDurationSelectsOnceSynchronously() {
+        mController.seekTo(123457, 0, null);
+
+        assertEquals(1, mSelected.size());
+        assertEquals(123457L, (long) mSelected.get(0));
+        assertFalse(mController.isScrolling());
+        assertEquals(0, mClock.getPendingCount());
+
+        mClock.runUntilIdle(100);
+        assertEquals(1, mSelected.size());
+        assertTrue(mFrames.isEmpty());
+    }
+
+    @Test
+    public void seekTo_longTimeBeyondIntRange() {
+        long time = 3000000000L + 7;
+        mController.seekTo(time, 0, null);
+        assertEquals(time, (long) mSelected.get(0));
+
+        mController.seekTo(time * 2 + 1, 300, null);
+        mClock.runUntilIdle(100);
+        assertEquals(time * 2 + 1, (long) mSelected.get(1));
+    }
+
+    @Test
+    public void seekTo_cancelsRunningFlingWithoutSelect() {
+        mFling.fling(0, 50000, 1000);
+        mController.startFling();
+        mClock.nextFrame();
+        mClock.nextFrame();
+        assertTrue(mController.isScrolling());
+
+        mController.seekTo(1000000, 300, null);
+        assertTrue(mFling.isFinished());
+        mClock.runUntilIdle(100);
+
+        // 只有 seek 停止时回调一次，fling 的终点不会出现
+        assertEquals(1, mSelected.size());
+        assertEquals(1000000L, (long) mSelected.get(0));
+        assertFalse(mFrames.contains(50000));
+        assertFalse(mController.isScrolling());
+    }
+
+    @Test
+    public void seekTo_zeroDuringFlingSelectsOnlyTarget() {
+        mFling.fling(0, 50000, 1000);
+        mController.startFling();
+        mClock.nextFrame();
+
+        mController.seekTo(777, 0, null);
+        assertEquals(1, mSelected.size());
+        assertEquals(777L, (long) mSelected.get(0));
+
+        mClock.runUntilIdle(100);
+        assertEquals(1, mSelected.size());
+    }
+
+    @Test
+    public void startFling_cancelsRunningSeek() {
+        mController.seekTo(1000000, 500, null);
+        mClock.nextFrame();
+
+        mFling.fling(mViewport.getScrollPix(), 100, 200);
+        mController.startFling();
+        mClock.runUntilIdle(100);
+
+        assertEquals(1, mSelected.size());
+        assertEquals(mViewport.pixToTime(100), (long) mSelected.get(0));
+    }
+
+    @Test
+    public void stop_suppressesSelect() {
+        mController.seekTo(1000000, 500, null);
+        mClock.nextFrame();
+        mController.stop();
+        mClock.runUntilIdle(100);
+
+        assertTrue(mSelected.isEmpty());
+        assertFalse(mController.isScrolling());
+    }
+
+    /////////////////////////////////////////////////////////
+    private static class LinearFlingScroller implements ScrollController.IFlingScroller {
+        private final IFrameClock mClock;
+        private int mStartX;
+        private int mCurrX;
+        private int mFinalX;
+        private long mStartTime;
+        private long mDuration;
+        private boolean mFinished = true;
+
+        LinearFlingScroller(IFrameClock clock) {
+            mClock = clock;
+        }
+
+        void fling(int startX, int finalX, long duration) {
+            mStartX = startX;
+            mCurrX = startX;
+            mFinalX = finalX;
+            mStartTime = mClock.uptimeMillis();
+            mDuration = duration;
+            mFinished = false;
+        }
+
+        @Override
+        public void abortAnimation() {
+            mFinished = true;
+        }
+
+        @Override
+        public boolean computeScrollOffset() {
+            if (mFinished) return false;
+            long passed = mClock.uptimeMillis() - mStartTime;
+            if (passed < mDuration) {
+                mCurrX = mStartX + (int) ((mFinalX - mStartX) * passed / mDuration);
+            } else {
+                mCurrX = mFinalX;
+                mFinished = true;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return mFinished;
+        }
+
+        @Override
+        public int getCurrX() {
+            return mCurrX;
+        }
+
+        @Override
+        public int getFinalX() {
+            return mFinalX;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.animation.TimeInterpolator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * seek 动画的本地单测，由手动推进的帧时钟驱动
+ */
+public class SeekScrollerTest {
+
+    private static final TimeInterpolator LINEAR = new TimeInterpolator() {
+        @Override
+        public float getInterpolation(float input) {
+            return input;
+        }
+    };
+
+    private FakeFrameClock mClock;
+    private SeekScroller mScroller;
+    private FlingSettler mSettler;
+    private final List<Integer> mFrames = new ArrayList<>();
+    private final List<Integer> mSettled = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        mClock = new FakeFrameClock();
+        mScroller = new SeekScroller(mClock);
+        mSettler = new FlingSettler(mClock, mScroller, new FlingSettler.ICallback() {
+            @Override
+            public void onScrollFrame(int x) {
+                mFrames.add(x);
+            }
+
+            @Override
+            public void onSettled(int finalX) {
+                mSettled.add(finalX);
+            }
+        });
+    }
+
+    @Test
+    public void seek_linearReachesTargetAtDuration() {
+        mScroller.startScroll(0, 1600, 160, LINEAR);
+        mSettler.start();
+
+        int frames = mClock.runUntilIdle(100);
+
+        assertEquals(10, frames);
+        for (int i = 0; i < mFrames.size(); i++) {
+            assertEquals(160 * (i + 1), (int) mFrames.get(i));
+        }
+        assertEquals(1, mSettled.size());
+        assertEquals(1600, (int) mSettled.get(0));
+    }
+
+    @Test
+    public void seek_defaultDecelerates() {
+        mScroller.startScroll(1000, 0, 320, null);
+        mSettler.start();
+        mClock.runUntilIdle(100);
+
+        // 向左移动，位置单调减小，前一半时间走过大半距离
+        for (int i = 1; i < mFrames.size(); i++) {
+            assertTrue(mFrames.get(i) < mFrames.get(i - 1));
+        }
+        assertTrue(mFrames.get(mFrames.size() / 2 - 1) < 500);
+        assertEquals(1, mSettled.size());
+        assertEquals(0, (int) mSettled.get(0));
+    }
+
+    @Test
+    public void seek_interruptedBySecondSeekSettlesOnce() {
+        mScroller.startScroll(0, 1000, 300, LINEAR);
+        mSettler.start();
+        mClock.nextFrame();
+        mClock.nextFrame();
+
+        int from = mScroller.getCurrX();
+        mScroller.startScroll(from, 200, 300, LINEAR);
+        mSettler.start();
+        mClock.runUntilIdle(100);
+
+        assertEquals(1, mSettled.size());
+        assertEquals(200, (int) mSettled.get(0));
+    }
+
+    @Test
+    public void seek_abortedDoesNotSettle() {
+        mScroller.startScroll(0, 1000, 300, LINEAR);
+        mSettler.start();
+        mClock.nextFrame();
+
+        mScroller.abort();
+        mSettler.cancel();
+        mClock.runUntilIdle(100);
+
+        assertTrue(mSettled.isEmpty());
+        assertEquals(0, mClock.getPendingCount());
+    }
+}
@@ -0,0 +1,249 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 波形数据存储的本地单测
+ */
+public class ShortWaveDataTest {
+
+    // 10分钟，每秒43个波形点
+    private static final int TRACK_POINTS = 10 * 60 * 43;
+
+    @Test
+    public void set_quantizesToUnsigned16Bit() {
+        List<Integer> volumes = new ArrayList<>();
+        volumes.add(0);
+        volumes.add(32768);
+        volumes.add(65535);
+        volumes.add(70000);
+        volumes.add(-1);
+
+        ShortWaveData data = new ShortWaveData();
+        data.set(volumes);
+
+        assertEquals(5, data.size());
+        assertEquals(0, data.getVolume(0));
+        assertEquals(32768, data.getVolume(1));
+        assertEquals(65535, data.getVolume(2));
+        assertEquals(65535, data.getVolume(3));
+        assertEquals(0, data.getVolume(4));
+    }
+
+    @Test
+    public void set_reusesBackingArray() {
+        List<Integer> volumes = createVolumes(TRACK_POINTS);
+        ShortWaveData data = new ShortWaveData();
+        data.set(volumes);
+        List<Integer> half = volumes.subList(0, TRACK_POINTS / 2);
+
+        long allocated = allocatedBytes();
+        data.set(half);
+        allocated = allocatedBytes() - allocated;
+
+        assertEquals(TRACK_POINTS / 2, data.size());
+        // 没有重新分配数组
+        assertTrue("allocated " + allocated, allocated < TRACK_POINTS);
+    }
+
+    @Test
+    public void append_keepsExistingData() {
+        ShortWaveData data = new ShortWaveData();
+        data.set(createVolumes(10));
+        data.append(createVolumes(5));
+        data.append(65536);
+
+        assertEquals(16, data.size());
+        assertEquals(9 * 7919 % 65536, data.getVolume(9));
+        assertEquals(4 * 7919 % 65536, data.getVolume(14));
+        assertEquals(65535, data.getVolume(15));
+    }
+
+    @Test
+    public void append_amortizedGrowth() {
+        ShortWaveData data = new ShortWaveData();
+        data.append(0);
+
+        long allocated = allocatedBytes();
+        for (int i = 1; i < TRACK_POINTS; i++) {
+            data.append(i);
+        }
+        allocated = allocatedBytes() - allocated;
+
+        assertEquals(TRACK_POINTS, data.size());
+        assertEquals(TRACK_POINTS - 1, data.getVolume(TRACK_POINTS - 1));
+        // 按比例扩容，总分配量与数据量同阶
+        assertTrue("allocated " + allocated, allocated < TRACK_POINTS * 2 * 4);
+    }
+
+    @Test
+    public void memory_comparedToVolumeList() {
+        List<Integer> volumes = createVolumes(TRACK_POINTS);
+
+        // 预热
+        buildVolumeList(volumes);
+        new ShortWaveData().set(volumes);
+
+        long start = allocatedBytes();
+        List<WaveSelector.Volume> list = buildVolumeList(volumes);
+        long listBytes = allocatedBytes() - start;
+
+        start = allocatedBytes();
+        ShortWaveData data = new ShortWaveData();
+        data.set(volumes);
+        long storeBytes = allocatedBytes() - start;
+
+        assertEquals(list.size(), data.size());
+        // 每个点至少2字节
+        assertTrue("store " + storeBytes, storeBytes >= TRACK_POINTS * 2);
+        assertTrue("list " + listBytes + ", store " + storeBytes, storeBytes * 8 < listBytes);
+    }
+
+    @Test
+    public void set_primitiveArrays() {
+        ShortWaveData data = new ShortWaveData();
+        data.set(new int[]{7, 0, 65535, 70000, -1, 9}, 1, 4);
+
+        assertEquals(4, data.size());
+        assertEquals(0, data.getVolume(0));
+        assertEquals(65535, data.getVolume(1));
+        assertEquals(65535, data.getVolume(2));
+        assertEquals(0, data.getVolume(3));
+
+        data.append(new short[]{1, (short) 40000, 3}, 1, 2);
+        assertEquals(6, data.size());
+        assertEquals(40000, data.getVolume(4));
+        assertEquals(3, data.getVolume(5));
+    }
+
+    @Test
+    public void set_byteBufferUsesBufferOrder() {
+        ByteBuffer le = ByteBuffer.allocateDirect(8).order(ByteOrder.LITTLE_ENDIAN);
+        le.putShort((short) 1).putShort((short) 0x1234).putShort((short) 50000).putShort((short) 4);
+        le.position(6);
+        ByteBuffer be = ByteBuffer.allocate(4).order(ByteOrder.BIG_ENDIAN);
+        be.putShort((short) 0x1234).putShort((short) 60000);
+
+        ShortWaveData data = new ShortWaveData();
+        data.set(le, 2, 4);
+        data.append(be, 0, 4);
+
+        assertEquals(4, data.size());
+        assertEquals(0x1234, data.getVolume(0));
+        assertEquals(50000, data.getVolume(1));
+        assertEquals(0x1234, data.getVolume(2));
+        assertEquals(60000, data.getVolume(3));
+        // 不改变调用方 buffer 的状态
+        assertEquals(6, le.position());
+        assertEquals(ByteOrder.LITTLE_ENDIAN, le.order());
+        assertEquals(4, be.position());
+    }
+
+    @Test
+    public void set_shortBufferKeepsPosition() {
+        ShortBuffer buffer = ShortBuffer.wrap(new short[]{1, 2, 3, 4});
+        buffer.position(1).limit(3);
+
+        ShortWaveData data = new ShortWaveData();
+        data.set(buffer);
+
+        assertEquals(2, data.size());
+        assertEquals(2, data.getVolume(0));
+        assertEquals(3, data.getVolume(1));
+        assertEquals(1, buffer.position());
+        assertEquals(3, buffer.limit());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void set_byteBufferRejectsOddLength() {
+        new ShortWaveData().set(ByteBuffer.allocate(8), 0, 3);
+    }
+
+    @Test
+    public void set_outOfRangeKeepsData() {
+        ShortWaveData data = new ShortWaveData();
+        data.set(new int[]{1, 2, 3}, 0, 3);
+
+        // 越界的写入都不改变已有数据，包括需要扩容的情况
+        try {
+            data.set(new int[]{4, 5, 6, 7}, 2, 3);
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        try {
+            data.set(new short[]{4, 5, 6, 7}, 1, 5);
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        try {
+            data.set(ByteBuffer.allocate(8), 4, 6);
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(16);
+        bytes.limit(4);
+        try {
+            // 超出 limit 的字节不读取
+            data.set(bytes, 0, 8);
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        try {
+            data.append(new int[]{4, 5}, 1, 2);
+        } catch (IndexOutOfBoundsException expected) {
+        }
+
+        assertEquals(3, data.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i + 1, data.getVolume(i));
+        }
+    }
+
+    @Test
+    public void set_directBufferWithoutBoxing() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(TRACK_POINTS * 2).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < TRACK_POINTS; i++) {
+            buffer.putShort((short) (i * 7919));
+        }
+        ShortWaveData data = new ShortWaveData();
+        data.set(buffer, 0, TRACK_POINTS * 2);
+
+        long allocated = allocatedBytes();
+        data.set(buffer, 0, TRACK_POINTS * 2);
+        allocated = allocatedBytes() - allocated;
+
+        assertEquals(TRACK_POINTS, data.size());
+        assertEquals((TRACK_POINTS - 1) * 7919 % 65536, data.getVolume(TRACK_POINTS - 1));
+        assertFalse(buffer.hasRemaining());
+        // 只有 buffer 视图的常数开销
+        assertTrue("allocated " + allocated, allocated < 1024);
+    }
+
+    private static List<WaveSelector.Volume> buildVolumeList(List<Integer> volumes) {
+        ArrayList<WaveSelector.Volume> list = new ArrayList<>();
+        for (int i = 0; i < volumes.size(); i++) {
+            list.add(new WaveSelector.Volume(volumes.get(i)));
+        }
+        return list;
+    }
+
+    private static List<Integer> createVolumes(int count) {
+        List<Integer> volumes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            volumes.add((i * 7919) % 65536);
+        }
+        return volumes;
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
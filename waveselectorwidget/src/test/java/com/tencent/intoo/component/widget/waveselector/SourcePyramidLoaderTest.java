@@ -0,0 +1,168 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 数据源多分辨率数据后台构建的本地单测，后台线程和主线程都由手动执行的 executor 模拟
+ */
+public class SourcePyramidLoaderTest {
+
+    private ManualExecutor mBackground;
+    private ManualExecutor mMain;
+    private int mReadyCount;
+    private SourcePyramidLoader mLoader;
+
+    @Before
+    public void setUp() {
+        mBackground = new ManualExecutor();
+        mMain = new ManualExecutor();
+        mLoader = new SourcePyramidLoader(mBackground, mMain, new SourcePyramidLoader.ICallback() {
+            @Override
+            public void onPyramidReady() {
+                mReadyCount++;
+            }
+        });
+    }
+
+    @Test
+    public void getLevel_neverReadsSourceOnCallingThread() {
+        CountingSource source = new CountingSource(createData(10000, 1));
+        mLoader.setSource(source);
+
+        // 构建完成前是大小正确的占位数据，不读取数据源
+        for (int level = 1; level <= 5; level++) {
+            IWaveData placeholder = mLoader.getLevel(level);
+            assertEquals(SourcePyramidLoader.getLevelSize(source.size(), level), placeholder.size());
+            assertEquals(0, placeholder.getVolume(placeholder.size() - 1));
+        }
+        assertEquals(0, source.reads);
+        // 多次读取只提交一次构建
+        assertEquals(1, mBackground.size());
+
+        mBackground.runAll();
+        assertEquals(source.size(), source.reads);
+        assertFalse(mLoader.isReady());
+        assertEquals(0, mReadyCount);
+
+        mMain.runAll();
+        assertTrue(mLoader.isReady());
+        assertEquals(1, mReadyCount);
+
+        WavePyramid expected = new WavePyramid();
+        expected.update(source.data);
+        for (int level = 1; level <= 5; level++) {
+            IWaveData levelData = mLoader.getLevel(level);
+            assertEquals(expected.getLevel(level).size(), levelData.size());
+            for (int i = 0; i < levelData.size(); i++) {
+                assertEquals(expected.getLevel(level).getVolume(i), levelData.getVolume(i));
+            }
+        }
+        assertEquals(source.size(), source.reads);
+    }
+
+    @Test
+    public void placeholder_reusedAcrossFrames() {
+        mLoader.setSource(createData(1000, 2));
+        assertSame(mLoader.getLevel(3), mLoader.getLevel(3));
+    }
+
+    @Test
+    public void setSource_discardsStaleBuild() {
+        ShortWaveData first = createData(1000, 3);
+        ShortWaveData second = createData(3000, 4);
+        mLoader.setSource(first);
+        mLoader.getLevel(1);
+        mBackground.runAll();
+
+        // 旧数据源的结果交回主线程前已更换数据源
+        mLoader.setSource(second);
+        mMain.runAll();
+        assertFalse(mLoader.isReady());
+        assertEquals(0, mReadyCount);
+        assertEquals(1500, mLoader.getLevel(1).size());
+
+        mBackground.runAll();
+        mMain.runAll();
+        assertTrue(mLoader.isReady());
+        assertEquals(1, mReadyCount);
+        assertEquals(1500, mLoader.getLevel(1).size());
+    }
+
+    @Test
+    public void levelSize_matchesPyramid() {
+        for (int size = 0; size < 300; size++) {
+            ShortWaveData data = createData(size, size);
+            WavePyramid pyramid = new WavePyramid();
+            pyramid.update(data);
+            for (int level = 1; level <= 10; level++) {
+                assertEquals("size " + size + " level " + level,
+                        pyramid.getLevel(level).size(), SourcePyramidLoader.getLevelSize(size, level));
+            }
+        }
+    }
+
+    private static ShortWaveData createData(int count, long seed) {
+        Random random = new Random(seed);
+        ShortWaveData data = new ShortWaveData();
+        for (int i = 0; i < count; i++) {
+            data.append(random.nextInt(65536));
+        }
+        return data;
+    }
+
+    /////////////////////////////////////////////////////////
+    private static class CountingSource implements IWaveDataSource {
+        final IWaveData data;
+        int reads;
+
+        CountingSource(IWaveData data) {
+            this.data = data;
+        }
+
+        @Override
+        public int size() {
+            return data.size();
+        }
+
+        @Override
+        public int getVolume(int index) {
+            reads++;
+            return data.getVolume(index);
+        }
+
+        @Override
+        public void prefetch(int from, int to) {
+        }
+    }
+
+    /////////////////////////////////////////////////////////
+    private static class ManualExecutor implements Executor {
+        private final ArrayDeque<Runnable> mTasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            mTasks.add(command);
+        }
+
+        int size() {
+            return mTasks.size();
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = mTasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+}
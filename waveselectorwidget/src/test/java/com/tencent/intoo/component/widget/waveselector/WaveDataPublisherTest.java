@@ -0,0 +1,213 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 后台写入、快照发布的本地单测
+ */
+public class WaveDataPublisherTest {
+
+    @Test
+    public void append_keepsOldSnapshotsUnchanged() {
+        WaveDataPublisher publisher = new WaveDataPublisher();
+        publisher.set(volumes(0, 10, 0));
+        WaveSnapshot first = publisher.snapshot();
+
+        publisher.append(volumes(10, 5, 0));
+        WaveSnapshot second = publisher.snapshot();
+
+        assertEquals(10, first.size());
+        assertEquals(15, second.size());
+        assertTrue(second.isAppendOf(first));
+        for (int i = 0; i < 15; i++) {
+            assertEquals(expected(i, 0), second.getVolume(i));
+        }
+    }
+
+    @Test
+    public void set_publishesNewGeneration() {
+        WaveDataPublisher publisher = new WaveDataPublisher();
+        publisher.set(volumes(0, 10, 0));
+        WaveSnapshot first = publisher.snapshot();
+
+        publisher.set(volumes(0, 20, 1));
+        WaveSnapshot second = publisher.snapshot();
+
+        assertTrue(!second.isAppendOf(first));
+        // 旧快照仍然是替换前的数据
+        for (int i = 0; i < 10; i++) {
+            assertEquals(expected(i, 0), first.getVolume(i));
+            assertEquals(expected(i, 1), second.getVolume(i));
+        }
+
+        publisher.clear();
+        assertEquals(0, publisher.snapshot().size());
+        assertEquals(10, first.size());
+    }
+
+    @Test
+    public void set_outOfRangeKeepsPublishedData() {
+        WaveDataPublisher publisher = new WaveDataPublisher();
+        publisher.set(volumes(0, 10, 0));
+        WaveSnapshot first = publisher.snapshot();
+
+        try {
+            publisher.set(new int[20], 5, 20);
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        try {
+            publisher.set(ByteBuffer.allocate(8), 0, 40);
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        assertSame(first, publisher.snapshot());
+
+        // 之后的追加接在原有数据之后
+        publisher.append(volumes(10, 5, 0));
+        WaveSnapshot second = publisher.snapshot();
+        assertEquals(15, second.size());
+        assertTrue(second.isAppendOf(first));
+        for (int i = 0; i < 15; i++) {
+            assertEquals(expected(i, 0), second.getVolume(i));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void snapshot_doesNotExposeDataBeyondSize() {
+        WaveDataPublisher publisher = new WaveDataPublisher();
+        publisher.append(volumes(0, 3, 0));
+        WaveSnapshot snapshot = publisher.snapshot();
+        publisher.append(volumes(3, 3, 0));
+        snapshot.getVolume(3);
+    }
+
+    @Test
+    public void listener_calledAfterPublish() {
+        WaveDataPublisher publisher = new WaveDataPublisher();
+        final List<WaveSnapshot> published = new ArrayList<>();
+        publisher.addListener(new WaveDataPublisher.IPublishListener() {
+            @Override
+            public void onPublish(WaveSnapshot snapshot) {
+                published.add(snapshot);
+            }
+        });
+        publisher.append(1);
+        publisher.append(volumes(1, 4, 0));
+        assertEquals(2, published.size());
+        assertSame(publisher.snapshot(), published.get(1));
+    }
+
+    /**
+     * 一个线程不断追加、偶尔整体替换，多个读线程检查每个快照都是完整且一致的
+     */
+    @Test
+    public void stress_readersNeverSeePartialData() throws Exception {
+        final WaveDataPublisher publisher = new WaveDataPublisher();
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<String> failure = new AtomicReference<>();
+        final AtomicInteger checked = new AtomicInteger();
+        final int readerCount = 3;
+        final CountDownLatch started = new CountDownLatch(readerCount + 1);
+
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                awaitQuietly(started);
+                for (int generation = 1; generation <= 40; generation++) {
+                    // 每一代的数据与代数相关，混入其他代的数据时可以发现
+                    publisher.set(volumes(0, 64, generation));
+                    for (int size = 64; size < 20000; size += 97) {
+                        publisher.append(volumes(size, 97, generation));
+                    }
+                }
+                done.set(true);
+            }
+        });
+
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < readerCount; r++) {
+            Thread reader = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    started.countDown();
+                    awaitQuietly(started);
+                    WaveSnapshot last = null;
+                    while (!done.get() && failure.get() == null) {
+                        WaveSnapshot snapshot = publisher.snapshot();
+                        String error = verify(snapshot, last);
+                        if (error != null) {
+                            failure.compareAndSet(null, error);
+                            return;
+                        }
+                        last = snapshot;
+                        checked.incrementAndGet();
+                    }
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        writer.start();
+
+        writer.join(60000);
+        for (Thread reader : readers) {
+            reader.join(60000);
+        }
+        assertNull(failure.get());
+        assertTrue(checked.get() > 0);
+        assertEquals(40, publisher.snapshot().getGeneration());
+        assertNull(verify(publisher.snapshot(), null));
+    }
+
+    private static String verify(WaveSnapshot snapshot, WaveSnapshot last) {
+        int generation = snapshot.getGeneration();
+        if (last != null) {
+            if (generation < last.getGeneration()) {
+                return "generation went back " + last.getGeneration() + " -> " + generation;
+            }
+            if (generation == last.getGeneration() && snapshot.size() < last.size()) {
+                return "size shrank in generation " + generation;
+            }
+        }
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (snapshot.getVolume(i) != expected(i, generation)) {
+                return "generation " + generation + " index " + i + " size " + snapshot.size()
+                        + " got " + snapshot.getVolume(i) + " expected " + expected(i, generation);
+            }
+        }
+        return null;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int expected(int index, int generation) {
+        return (index * 7919 + generation * 4099 + 1) & ShortWaveData.MAX_VOLUME;
+    }
+
+    private static List<Integer> volumes(int from, int count, int generation) {
+        List<Integer> volumes = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            volumes.add(expected(i, generation));
+        }
+        return volumes;
+    }
+}
@@ -0,0 +1,123 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 日志开关的本地单测
+ */
+public class WaveLogTest {
+
+    private final List<String> mMessages = new ArrayList<>();
+    private final WaveLog.ILogger mLogger = new WaveLog.ILogger() {
+        @Override
+        public void log(int priority, String tag, String msg) {
+            mMessages.add(priority + "/" + tag + ": " + msg);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        WaveLog.setLogger(null);
+        WaveLog.setTracer(WaveLog.SYSTRACE);
+        mMessages.clear();
+    }
+
+    @Test
+    public void disabledByDefault() {
+        assertFalse(WaveLog.isEnabled());
+        WaveLog.d(WaveSelector.TAG, "ignored");
+        assertTrue(mMessages.isEmpty());
+    }
+
+    @Test
+    public void logger_receivesPriorityAndTag() {
+        WaveLog.setLogger(mLogger);
+        assertTrue(WaveLog.isEnabled());
+        WaveLog.d(WaveSelector.TAG, "a");
+        WaveLog.e(WaveSelector.TAG, "b");
+        assertEquals(2, mMessages.size());
+        assertEquals("3/WaveSelector: a", mMessages.get(0));
+        assertEquals("6/WaveSelector: b", mMessages.get(1));
+    }
+
+    @Test
+    public void tracer_receivesSections() {
+        final List<String> sections = new ArrayList<>();
+        WaveLog.setTracer(new WaveLog.ITracer() {
+            @Override
+            public void beginSection(String name) {
+                sections.add(name);
+            }
+
+            @Override
+            public void endSection() {
+                sections.add("end");
+            }
+        });
+        WaveLog.beginSection("draw");
+        WaveLog.endSection();
+        WaveLog.setTracer(null);
+        WaveLog.beginSection("ignored");
+        assertEquals(2, sections.size());
+        assertEquals("draw", sections.get(0));
+    }
+
+    /**
+     * 日志关闭时不能拼接字符串：库中所有拼接参数的日志调用都必须在同一行先判断 {@link WaveLog#isEnabled()}
+     */
+    @Test
+    public void concatenatedLogCalls_guardedInLibrarySources() throws IOException {
+        File dir = findSourceDir();
+        File[] files = dir.listFiles();
+        assertTrue(files != null && files.length > 0);
+
+        Pattern call = Pattern.compile("WaveLog\\.[vdiwe]\\(");
+        int checked = 0;
+        List<String> unguarded = new ArrayList<>();
+        for (File file : files) {
+            if (!file.getName().endsWith(".java")) continue;
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+            try {
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    Matcher matcher = call.matcher(line);
+                    if (!matcher.find()) continue;
+                    checked++;
+                    String args = line.substring(matcher.end());
+                    // 参数拼接了字符串时需要在调用前判断开关
+                    if (args.contains("+") && !line.substring(0, matcher.start()).contains("WaveLog.isEnabled()")) {
+                        unguarded.add(file.getName() + ":" + lineNumber);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        assertTrue(checked > 0);
+        assertEquals("unguarded log calls " + unguarded, 0, unguarded.size());
+    }
+
+    private static File findSourceDir() {
+        String path = "src/main/java/com/tencent/intoo/component/widget/waveselector";
+        // gradle 在模块目录下运行单测，IDE 可能在工程根目录
+        File dir = new File(path);
+        return dir.isDirectory() ? dir : new File("waveselectorwidget", path);
+    }
+}
@@ -0,0 +1,112 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 性能统计的本地单测
+ */
+public class WaveMetricsTest {
+
+    private WaveMetrics mMetrics;
+
+    @Before
+    public void setUp() {
+        mMetrics = new WaveMetrics();
+    }
+
+    @Test
+    public void histogram_log2Buckets() {
+        WaveMetrics.Histogram histogram = new WaveMetrics.Histogram();
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(2);
+        histogram.record(3);
+        histogram.record(1000);
+        assertEquals(1, histogram.getBucketCount(0));
+        assertEquals(1, histogram.getBucketCount(1));
+        assertEquals(2, histogram.getBucketCount(2));
+        assertEquals(1, histogram.getBucketCount(10));
+        assertEquals(5, histogram.getCount());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(201.2, histogram.getMean(), 1e-9);
+        assertEquals(63, WaveMetrics.Histogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void histogram_percentileIsBucketUpperBound() {
+        WaveMetrics.Histogram histogram = new WaveMetrics.Histogram();
+        assertEquals(0, histogram.getPercentile(0.5));
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);
+        }
+        histogram.record(5000);
+        // 100 在 [64, 128) 桶内
+        assertEquals(127, histogram.getPercentile(0.5));
+        assertEquals(127, histogram.getPercentile(0.99));
+        // 最高的桶不超过最大值
+        assertEquals(5000, histogram.getPercentile(1));
+    }
+
+    @Test
+    public void draw_countsFramesAndBars() {
+        mMetrics.onDraw(2000, 73);
+        mMetrics.onDraw(4000, 73);
+        assertEquals(2, mMetrics.getFrameCount());
+        assertEquals(146, mMetrics.getBarCount());
+        assertEquals(3000, mMetrics.getDrawNanos().getMean(), 1e-9);
+        assertEquals(73, mMetrics.getBarsPerFrame().getMax());
+    }
+
+    @Test
+    public void fling_recordsScrollFramesOnEnd() {
+        mMetrics.onFling();
+        for (int i = 0; i < 30; i++) {
+            mMetrics.onScrollFrame();
+        }
+        mMetrics.onScrollEnd();
+        // 滚动结束后的 computeScroll 不再计入
+        mMetrics.onScrollEnd();
+        assertEquals(1, mMetrics.getFlingCount());
+        assertEquals(30, mMetrics.getScrollFrameCount());
+        assertEquals(1, mMetrics.getScrollFramesPerFling().getCount());
+        assertEquals(30, mMetrics.getScrollFramesPerFling().getMax());
+    }
+
+    @Test
+    public void prefetch_countsHitsAndMisses() {
+        mMetrics.onPrefetchResult(true);
+        mMetrics.onPrefetchResult(true);
+        mMetrics.onPrefetchResult(false);
+        assertEquals(2, mMetrics.getPrefetchHitCount());
+        assertEquals(1, mMetrics.getPrefetchMissCount());
+
+        mMetrics.reset();
+        assertEquals(0, mMetrics.getPrefetchHitCount());
+        assertEquals(0, mMetrics.getPrefetchMissCount());
+    }
+
+    @Test
+    public void gesture_callbacksRecordedWhenNextGestureStarts() {
+        mMetrics.onGestureStart();
+        mMetrics.onChanging();
+        mMetrics.onChanging();
+        mMetrics.onChanging();
+        mMetrics.onSelect();
+        assertEquals(0, mMetrics.getChangingPerGesture().getCount());
+
+        mMetrics.onGestureStart();
+        assertEquals(2, mMetrics.getGestureCount());
+        assertEquals(3, mMetrics.getChangingCount());
+        assertEquals(1, mMetrics.getSelectCount());
+        assertEquals(1, mMetrics.getChangingPerGesture().getCount());
+        assertEquals(3, mMetrics.getChangingPerGesture().getMax());
+        assertEquals(1, mMetrics.getSelectPerGesture().getMax());
+
+        mMetrics.reset();
+        assertEquals(0, mMetrics.getGestureCount());
+        assertEquals(0, mMetrics.getChangingPerGesture().getCount());
+    }
+}
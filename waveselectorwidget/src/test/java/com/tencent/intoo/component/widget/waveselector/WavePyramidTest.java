@@ -0,0 +1,118 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 多分辨率波形金字塔的本地单测
+ */
+public class WavePyramidTest {
+
+    @Test
+    public void levels_matchBruteForce() {
+        ShortWaveData data = createData(1000, 1);
+        WavePyramid pyramid = new WavePyramid();
+        pyramid.update(data);
+
+        assertEquals(10, pyramid.getLevelCount());
+        for (int level = 1; level <= pyramid.getLevelCount(); level++) {
+            int span = 1 << level;
+            IWaveData levelData = pyramid.getLevel(level);
+            assertEquals((data.size() + span - 1) / span, levelData.size());
+            for (int i = 0; i < levelData.size(); i++) {
+                int max = 0;
+                for (int j = i * span; j < Math.min(data.size(), (i + 1) * span); j++) {
+                    max = Math.max(max, data.getVolume(j));
+                }
+                assertEquals(max, levelData.getVolume(i));
+                assertEquals(max, pyramid.getMax(level, i));
+            }
+        }
+    }
+
+    @Test
+    public void update_incrementalEqualsFullBuild() {
+        ShortWaveData full = createData(5000, 2);
+
+        ShortWaveData partial = new ShortWaveData();
+        WavePyramid incremental = new WavePyramid();
+        Random random = new Random(3);
+        int pos = 0;
+        while (pos < full.size()) {
+            int count = Math.min(full.size() - pos, 1 + random.nextInt(300));
+            for (int i = 0; i < count; i++) {
+                partial.append(full.getVolume(pos + i));
+            }
+            pos += count;
+            incremental.update(partial);
+        }
+
+        WavePyramid expected = new WavePyramid();
+        expected.update(full);
+
+        assertEquals(expected.getLevelCount(), incremental.getLevelCount());
+        for (int level = 1; level <= expected.getLevelCount(); level++) {
+            assertEquals(expected.getLevel(level).size(), incremental.getLevel(level).size());
+            for (int i = 0; i < expected.getLevel(level).size(); i++) {
+                assertEquals(expected.getMax(level, i), incremental.getMax(level, i));
+            }
+        }
+    }
+
+    @Test
+    public void reset_rebuildsReplacedData() {
+        ShortWaveData data = createData(100, 4);
+        WavePyramid pyramid = new WavePyramid();
+        pyramid.update(data);
+
+        List<Integer> volumes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            volumes.add(7);
+        }
+        data.set(volumes);
+        pyramid.reset();
+        pyramid.update(data);
+
+        assertEquals(7, pyramid.getLevel(2).getVolume(0));
+    }
+
+    @Test
+    public void rebase_keepsBuiltLevelsForAppendedSnapshots() {
+        ShortWaveData full = createData(3000, 5);
+        WaveDataPublisher publisher = new WaveDataPublisher();
+        WavePyramid incremental = new WavePyramid();
+        for (int pos = 0; pos < full.size(); pos += 250) {
+            List<Integer> chunk = new ArrayList<>();
+            for (int i = pos; i < Math.min(full.size(), pos + 250); i++) {
+                chunk.add(full.getVolume(i));
+            }
+            publisher.append(chunk);
+            incremental.rebase(publisher.snapshot());
+            incremental.update(publisher.snapshot());
+        }
+
+        WavePyramid expected = new WavePyramid();
+        expected.update(full);
+
+        assertEquals(expected.getLevelCount(), incremental.getLevelCount());
+        for (int level = 1; level <= expected.getLevelCount(); level++) {
+            for (int i = 0; i < expected.getLevel(level).size(); i++) {
+                assertEquals(expected.getMax(level, i), incremental.getMax(level, i));
+            }
+        }
+    }
+
+    private static ShortWaveData createData(int count, long seed) {
+        Random random = new Random(seed);
+        ShortWaveData data = new ShortWaveData();
+        for (int i = 0; i < count; i++) {
+            data.append(random.nextInt(65536));
+        }
+        return data;
+    }
+}
@@ -0,0 +1,355 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 波形绘制的本地单测
+ */
+public class WaveRendererTest {
+
+    private static final int WIDTH = 1080;
+    private static final int PAGE_COUNT = 72;
+
+    private WaveRenderer mRenderer;
+    private Paint mPlayingPaint;
+    private ShortWaveData mData;
+    private CountingCanvas mCanvas;
+
+    @Before
+    public void setUp() {
+        float waveSize = WIDTH * 1.0f / PAGE_COUNT / 2;
+        mPlayingPaint = new Paint();
+        mRenderer = new WaveRenderer(new Paint(), mPlayingPaint);
+        mRenderer.setGeometry(WIDTH, 300, WIDTH / 2, PAGE_COUNT, waveSize, waveSize);
+        mRenderer.setWaveStyle(4, 60, 90);
+        mRenderer.setPlayingColors(new int[]{0xffff0000, 0xffffff00});
+
+        List<Integer> volumes = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            volumes.add((i * 7919) % 65536);
+        }
+        mData = new ShortWaveData();
+        mData.set(volumes);
+        mCanvas = new CountingCanvas();
+    }
+
+    @Test
+    public void visibleWindow_coversOnePage() {
+        mRenderer.updateVisibleWindow(mData.size(), 0);
+        assertEquals(0, mRenderer.getVisibleFrom());
+        assertEquals(PAGE_COUNT + 1, mRenderer.getVisibleTo());
+
+        mRenderer.updateVisibleWindow(mData.size(), WIDTH / 2 + (int) (mRenderer.getWaveUnit() * 100));
+        assertEquals(100, mRenderer.getVisibleFrom());
+        assertEquals(100 + PAGE_COUNT + 1, mRenderer.getVisibleTo());
+
+        // 超出尾部时停留在最后一页
+        mRenderer.updateVisibleWindow(mData.size(), Integer.MAX_VALUE / 2);
+        assertEquals(mRenderer.getLastPageIndex(mData.size()), mRenderer.getVisibleFrom());
+        assertEquals(mData.size() - 1, mRenderer.getVisibleTo());
+    }
+
+    @Test
+    public void visibleWindow_shortData() {
+        mRenderer.updateVisibleWindow(10, 0);
+        assertEquals(0, mRenderer.getVisibleFrom());
+        assertEquals(9, mRenderer.getVisibleTo());
+
+        mRenderer.updateVisibleWindow(0, 0);
+        assertEquals(0, mRenderer.getVisibleFrom());
+        assertEquals(0, mRenderer.getVisibleTo());
+    }
+
+    @Test
+    public void window_matchesVisibleWindowAnywhere() {
+        double unit = mRenderer.getWaveUnit();
+        for (double left = -WIDTH; left < mData.size() * unit + WIDTH; left += unit * 7.3) {
+            mRenderer.updateVisibleWindow(mData.size(), left);
+            assertEquals(mRenderer.getVisibleFrom(), mRenderer.getWindowFrom(mData.size(), left));
+            assertEquals(mRenderer.getVisibleTo(), mRenderer.getWindowTo(mData.size(), left));
+        }
+        // 不改变当前可见区间
+        mRenderer.updateVisibleWindow(mData.size(), 0);
+        mRenderer.getWindowFrom(mData.size(), WIDTH * 5);
+        assertEquals(0, mRenderer.getVisibleFrom());
+    }
+
+    @Test
+    public void tileCacheSize_allocatesOnlyAfterLayoutInTileMode() {
+        // 布局前设置预算，块尺寸未知，不分配
+        WaveRenderer renderer = new WaveRenderer(new Paint(), new Paint());
+        renderer.setTileCacheSize(8 << 20);
+        renderer.setRenderMode(WaveSelector.RENDER_MODE_TILE);
+        assertEquals(0, renderer.getTileSlotCount());
+
+        // 非分块模式布局后也不分配
+        renderer.setRenderMode(WaveSelector.RENDER_MODE_DIRECT);
+        float waveSize = WIDTH * 1.0f / PAGE_COUNT / 2;
+        renderer.setGeometry(WIDTH, 300, WIDTH / 2, PAGE_COUNT, waveSize, waveSize);
+        assertEquals(0, renderer.getTileSlotCount());
+
+        // 分块模式按块大小分配
+        renderer.setRenderMode(WaveSelector.RENDER_MODE_TILE);
+        int tileBytes = (int) Math.ceil(WaveTileCache.TILE_BARS * renderer.getWaveUnit()) * 300;
+        assertEquals((8 << 20) / tileBytes, renderer.getTileSlotCount());
+
+        // 布局后修改预算立即生效
+        renderer.setTileCacheSize(1);
+        int minSlots = (WIDTH / (int) Math.ceil(WaveTileCache.TILE_BARS * renderer.getWaveUnit()) + 3) * 2;
+        assertEquals(minSlots, renderer.getTileSlotCount());
+
+        renderer.setRenderMode(WaveSelector.RENDER_MODE_BATCH);
+        assertEquals(0, renderer.getTileSlotCount());
+    }
+
+    @Test
+    public void prepareTiles_rendersLandingOneTilePerFrame() {
+        int from = mRenderer.getWindowFrom(mData.size(), WIDTH * 20);
+        int to = mRenderer.getWindowTo(mData.size(), WIDTH * 20);
+        // 非分块模式没有需要准备的
+        assertEquals(0, mRenderer.prepareTiles(mData, from, to, 1));
+
+        mRenderer.setRenderMode(WaveSelector.RENDER_MODE_TILE);
+        mRenderer.updateVisibleWindow(mData.size(), WIDTH);
+        mRenderer.drawWave(mCanvas, mData, WIDTH, -WIDTH, -WIDTH, -WIDTH);
+
+        int missing = mRenderer.prepareTiles(mData, from, to, 0);
+        assertTrue(missing > 1);
+        for (int frame = 1; frame <= missing; frame++) {
+            assertEquals(missing - frame, mRenderer.prepareTiles(mData, from, to, 1));
+            // 滚动过程中的绘制不会淘汰已准备的块
+            mRenderer.updateVisibleWindow(mData.size(), WIDTH + frame * mRenderer.getWaveUnit());
+            mRenderer.drawWave(mCanvas, mData, WIDTH + frame * mRenderer.getWaveUnit(), -WIDTH, -WIDTH, -WIDTH);
+        }
+        assertEquals(0, mRenderer.prepareTiles(mData, from, to, 0));
+
+        // 数据变化后重新准备
+        mRenderer.invalidateTiles();
+        assertEquals(missing, mRenderer.prepareTiles(mData, from, to, 0));
+    }
+
+    @Test
+    public void prepareTiles_landingSurvivesLongFling() {
+        mRenderer.setRenderMode(WaveSelector.RENDER_MODE_TILE);
+        // 最小预算，缓存只有两屏的块
+        mRenderer.setTileCacheSize(1);
+        float unit = mRenderer.getWaveUnit();
+        double landing = WIDTH / 2 + unit * (mData.size() - 200);
+        int from = mRenderer.getWindowFrom(mData.size(), landing);
+        int to = mRenderer.getWindowTo(mData.size(), landing);
+
+        // 从头滚到落点，经过两百多块，每帧准备一块落点的块
+        int renders = 0;
+        for (double left = 0; left < landing; left += unit * 40) {
+            int missing = mRenderer.prepareTiles(mData, from, to, 0);
+            if (mRenderer.prepareTiles(mData, from, to, 1) < missing) {
+                renders++;
+            }
+            mRenderer.updateVisibleWindow(mData.size(), left);
+            mRenderer.drawWave(mCanvas, mData, left, -WIDTH, -WIDTH, -WIDTH);
+        }
+        assertEquals(0, mRenderer.prepareTiles(mData, from, to, 0));
+        // 滚动中的绘制没有淘汰落点的块，每块只渲染一次
+        assertEquals(to / WaveTileCache.TILE_BARS - from / WaveTileCache.TILE_BARS + 1, renders);
+
+        // 解除固定后按LRU淘汰
+        mRenderer.unpinTiles();
+        for (double left = 0; left < WIDTH * 4; left += unit * 40) {
+            mRenderer.updateVisibleWindow(mData.size(), left);
+            mRenderer.drawWave(mCanvas, mData, left, -WIDTH, -WIDTH, -WIDTH);
+        }
+        assertTrue(mRenderer.prepareTiles(mData, from, to, 0) > 0);
+    }
+
+    @Test
+    public void drawWave_drawsOnlyVisibleBars() {
+        mRenderer.updateVisibleWindow(mData.size(), WIDTH);
+        mRenderer.drawWave(mCanvas, mData, WIDTH, WIDTH / 2, WIDTH / 2 + 100, WIDTH);
+        assertTrue(mCanvas.drawCount > 0);
+        assertTrue(mCanvas.drawCount <= PAGE_COUNT + 1);
+    }
+
+    @Test
+    public void drawWave_tileModeBlitsTilesAndOverlaysHighLight() {
+        mRenderer.setRenderMode(WaveSelector.RENDER_MODE_TILE);
+        mRenderer.updateVisibleWindow(mData.size(), WIDTH);
+
+        // 无高亮时只贴图
+        mRenderer.drawWave(mCanvas, mData, WIDTH, -WIDTH, -WIDTH, -WIDTH);
+        int tilesPerScreen = (PAGE_COUNT + 1) / WaveTileCache.TILE_BARS + 2;
+        assertTrue(mCanvas.bitmapCount > 0);
+        assertTrue(mCanvas.bitmapCount <= tilesPerScreen);
+        assertEquals(0, mCanvas.drawCount);
+
+        // 高亮的波形叠加绘制
+        mCanvas.bitmapCount = 0;
+        mRenderer.drawWave(mCanvas, mData, WIDTH, WIDTH / 2, WIDTH / 2 + 100, WIDTH);
+        assertTrue(mCanvas.bitmapCount <= tilesPerScreen);
+        assertTrue(mCanvas.drawCount > 0);
+        assertTrue(mCanvas.drawCount < 10);
+    }
+
+    @Test
+    public void drawWave_batchModeUsesSingleDrawCallPerPaint() {
+        mRenderer.setRenderMode(WaveSelector.RENDER_MODE_BATCH);
+        mRenderer.updateVisibleWindow(mData.size(), WIDTH);
+
+        mRenderer.drawWave(mCanvas, mData, WIDTH, -WIDTH, -WIDTH, -WIDTH);
+        assertEquals(1, mCanvas.pathCount);
+        assertEquals(0, mCanvas.drawCount);
+        assertTrue(mRenderer.getDrawnBarCount() > PAGE_COUNT / 2);
+        assertEquals(0, mRenderer.getDrawnHighLightCount());
+
+        mCanvas.pathCount = 0;
+        mRenderer.drawWave(mCanvas, mData, WIDTH, WIDTH / 2, WIDTH / 2 + 100, WIDTH);
+        assertEquals(2, mCanvas.pathCount);
+        assertEquals(0, mCanvas.drawCount);
+        assertTrue(mRenderer.getDrawnHighLightCount() > 0);
+    }
+
+    @Test
+    public void drawWave_batchModeNoRendererAllocationInSteadyState() {
+        // 本地单测中 Path 和 LinearGradient 是空实现（returnDefaultValues），
+        // 这里只覆盖渲染器自身的分配，不能发现 addRoundRect、rewind 等框架内部的分配
+        mRenderer.setRenderMode(WaveSelector.RENDER_MODE_BATCH);
+        assertNoAllocation();
+    }
+
+    @Test
+    public void drawWave_noAllocationInSteadyState() {
+        assertNoAllocation();
+    }
+
+    private void assertNoAllocation() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // 预热，排除类加载和JIT的影响
+        drawFrames(20000);
+        bean.getThreadAllocatedBytes(threadId);
+
+        long before = bean.getThreadAllocatedBytes(threadId);
+        drawFrames(20000);
+        long after = bean.getThreadAllocatedBytes(threadId);
+
+        assertEquals("allocated bytes during onDraw", 0, after - before);
+    }
+
+    @Test
+    public void barIndexAt_changesWithHighLightedBars() {
+        int[] lefts = {0, WIDTH / 3, WIDTH * 5 + 7, WIDTH * 40 + 3};
+        for (int left : lefts) {
+            mRenderer.updateVisibleWindow(mData.size(), left);
+            float start = WIDTH / 2;
+            mRenderer.drawWave(mCanvas, mData, left, start, start, WIDTH);
+            int lastCount = mRenderer.getDrawnHighLightCount();
+            int lastIndex = mRenderer.getBarIndexAt(start, left);
+            // 进度每次前进半个像素，高亮波形数变化时下标必须变化，反之亦然
+            for (float progress = start; progress < WIDTH; progress += 0.5f) {
+                mRenderer.drawWave(mCanvas, mData, left, start, progress, WIDTH);
+                int count = mRenderer.getDrawnHighLightCount();
+                int index = mRenderer.getBarIndexAt(progress, left);
+                assertEquals("left " + left + ", progress " + progress, count != lastCount, index != lastIndex);
+                lastCount = count;
+                lastIndex = index;
+            }
+        }
+    }
+
+    @Test
+    public void highLightBarChanged_matchesRecoloredBars() {
+        int[] lefts = {0, WIDTH / 3, WIDTH * 5 + 7, WIDTH * 40 + 3};
+        float[] steps = {0.3f, 1, 7.5f, 15, 33, 200};
+        BarCanvas canvas = new BarCanvas(mPlayingPaint);
+        for (int left : lefts) {
+            mRenderer.updateVisibleWindow(mData.size(), left);
+            float start = WIDTH / 2;
+            for (float step : steps) {
+                for (float from = start; from + step < WIDTH; from += 11.7f) {
+                    float to = from + step;
+                    List<Float> before = canvas.drawHighLights(mRenderer, mData, left, start, from);
+                    List<Float> after = canvas.drawHighLights(mRenderer, mData, left, start, to);
+                    boolean changed = !before.equals(after);
+                    String message = "left " + left + ", " + from + " -> " + to;
+
+                    assertEquals(message, changed, mRenderer.isHighLightBarChanged(from, to, left));
+                    assertEquals(message, changed, mRenderer.isHighLightBarChanged(to, from, left));
+                }
+            }
+        }
+        // 屏幕外的进度变化不重绘
+        mRenderer.updateVisibleWindow(mData.size(), WIDTH);
+        assertFalse(mRenderer.isHighLightBarChanged(WIDTH + 10, WIDTH * 2, WIDTH));
+        assertFalse(mRenderer.isHighLightBarChanged(-WIDTH, -10, WIDTH));
+    }
+
+    private void drawFrames(int frames) {
+        for (int i = 0; i < frames; i++) {
+            int left = (i * 13) % (WIDTH * 20);
+            mRenderer.updateVisibleWindow(mData.size(), left);
+            mRenderer.drawWave(mCanvas, mData, left, WIDTH / 2, WIDTH / 2 + (i % WIDTH) / 2, WIDTH);
+        }
+    }
+
+    /**
+     * 记录高亮波形的位置
+     */
+    private static class BarCanvas extends CountingCanvas {
+        private final Paint mPlayingPaint;
+        private final List<Float> mHighLightLefts = new ArrayList<>();
+
+        BarCanvas(Paint playingPaint) {
+            mPlayingPaint = playingPaint;
+        }
+
+        List<Float> drawHighLights(WaveRenderer renderer, IWaveData data, int left, float start, float progress) {
+            mHighLightLefts.clear();
+            renderer.drawWave(this, data, left, start, progress, WIDTH);
+            return new ArrayList<>(mHighLightLefts);
+        }
+
+        @Override
+        public void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+            super.drawRoundRect(rect, rx, ry, paint);
+            if (paint == mPlayingPaint) {
+                mHighLightLefts.add(rect.left);
+            }
+        }
+    }
+
+    private static class CountingCanvas extends Canvas {
+        int drawCount;
+        int bitmapCount;
+        int pathCount;
+
+        @Override
+        public void drawPath(Path path, Paint paint) {
+            pathCount++;
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+            bitmapCount++;
+        }
+
+        @Override
+        public void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+            drawCount++;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.tencent.intoo.component.widget.waveselector;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 波形滚动视口的本地单测，随机覆盖24小时以内的时间
+ */
+public class WaveViewportTest {
+
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    private static final int SAMPLES = 100000;
+
+    // 1080像素对应40秒的各个缩放层级，以及几个不规则的比例
+    private static final double[] SCALES = {
+            1080.0 / 40000, 1080.0 / 40000 / 2, 1080.0 / 40000 / 1024, 1080.0 / 40000 / (1 << 20),
+            1440.0 / 30000, 1.0 / 3, 7.3, 0.1,
+    };
+
+    @Test
+    public void timeToPix_roundTripsEveryMillisecond() {
+        Random random = new Random(19);
+        for (double scale : SCALES) {
+            WaveSelector.SizeConvertAdapter adapter = new WaveSelector.SizeConvertAdapter(scale);
+            for (int i = 0; i < SAMPLES; i++) {
+                long time = (long) (random.nextDouble() * DAY_MS);
+                assertEquals("scale " + scale, time, adapter.pixToTime(adapter.timeToPix(time)));
+            }
+            for (long time = DAY_MS - 1000; time <= DAY_MS; time++) {
+                assertEquals("scale " + scale, time, adapter.pixToTime(adapter.timeToPix(time)));
+            }
+        }
+    }
+
+    @Test
+    public void pixToTime_monotonic() {
+        Random random = new Random(7);
+        for (double scale : SCALES) {
+            WaveSelector.SizeConvertAdapter adapter = new WaveSelector.SizeConvertAdapter(scale);
+            double maxPix = adapter.timeToPix(DAY_MS);
+            for (int i = 0; i < SAMPLES / 10; i++) {
+                double pix = random.nextDouble() * maxPix;
+                long last = adapter.pixToTime(pix);
+                // 向右滚动时选择时间不会倒退
+                for (int step = 0; step < 10; step++) {
+                    pix += random.nextDouble();
+                    long time = adapter.pixToTime(pix);
+                    assertTrue(time >= last);
+                    last = time;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void setAdapter_keepsSelectedTime() {
+        Random random = new Random(3);
+        WaveViewport viewport = new WaveViewport();
+        viewport.setAdapter(new WaveSelector.SizeConvertAdapter(SCALES[0]));
+        viewport.setMaxScrollX(Double.MAX_VALUE);
+        for (int i = 0; i < SAMPLES / 10; i++) {
+            long time = (long) (random.nextDouble() * DAY_MS);
+            viewport.setScrollX(viewport.timeToPix(time));
+            // 连续缩放若干次后再回到原比例
+            for (int zoom = 0; zoom < 8; zoom++) {
+                viewport.setAdapter(new WaveSelector.SizeConvertAdapter(SCALES[0] / (1 << random.nextInt(21))));
+                assertEquals(time, viewport.getScrollTime());
+            }
+            viewport.setAdapter(new WaveSelector.SizeConvertAdapter(SCALES[0]));
+            assertEquals(time, viewport.getScrollTime());
+        }
+    }
+
+    @Test
+    public void seekTarget_exactAfterScroller() {
+        Random random = new Random(11);
+        WaveViewport viewport = new WaveViewport();
+        viewport.setAdapter(new WaveSelector.SizeConvertAdapter(SCALES[0]));
+        viewport.setMaxScrollX(viewport.timeToPix(DAY_MS));
+        for (int i = 0; i < SAMPLES; i++) {
+            long time = (long) (random.nextDouble() * DAY_MS);
+            int scrollerX = viewport.setTargetTime(time);
+            // 一个像素约37毫秒，整数像素上只能得到近似时间
+            viewport.syncScroller(scrollerX);
+            assertEquals(time, viewport.getScrollTime());
+            assertEquals(scrollerX, viewport.getScrollPix());
+        }
+    }
+
+    @Test
+    public void seekTarget_clampedAndCleared() {
+        WaveViewport viewport = new WaveViewport();
+        viewport.setAdapter(new WaveSelector.SizeConvertAdapter(0.5));
+        viewport.setMaxScrollX(1000);
+
+        assertEquals(1000, viewport.setTargetTime(DAY_MS));
+        viewport.syncScroller(1000);
+        assertEquals(2000, viewport.getScrollTime());
+
+        assertEquals(0, viewport.setTargetTime(-5));
+        viewport.syncScroller(0);
+        assertEquals(0, viewport.getScrollTime());
+
+        // 其他位置不受目标影响
+        viewport.setTargetTime(301);
+        viewport.syncScroller(100);
+        assertEquals(100, viewport.getScrollX(), 0);
+
+        // 拖动后目标失效
+        viewport.setTargetTime(301);
+        viewport.scrollBy(-1.2);
+        viewport.syncScroller(151);
+        assertEquals(151, viewport.getScrollX(), 0);
+    }
+
+    @Test
+    public void clampScroll_limitsToMax() {
+        WaveViewport viewport = new WaveViewport();
+        viewport.setAdapter(new WaveSelector.SizeConvertAdapter(1.0));
+        viewport.setMaxScrollX(500);
+        viewport.setScrollX(800.5);
+        assertTrue(!viewport.isAvailable(viewport.getScrollX()));
+
+        viewport.clampScroll();
+        assertEquals(500, viewport.getScrollX(), 0);
+        assertTrue(viewport.isAvailable(viewport.getScrollX()));
+    }
+}